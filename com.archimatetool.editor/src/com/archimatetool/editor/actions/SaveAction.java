@@ -68,7 +68,7 @@ public class SaveAction extends AbstractModelSelectionAction {
         IArchimateModel model = getActiveArchimateModel();
         if(model != null) {
             try {
-                IEditorModelManager.INSTANCE.saveModel(model);
+                IEditorModelManager.INSTANCE.saveModelInBackground(model);
             }
             catch(IOException ex) {
                 MessageDialog.openError(workbenchWindow.getShell(), Messages.SaveAction_1, ex.getMessage());
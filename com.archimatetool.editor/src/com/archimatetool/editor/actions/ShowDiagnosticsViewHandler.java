@@ -0,0 +1,30 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.actions;
+
+import org.eclipse.core.commands.AbstractHandler;
+import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.commands.ExecutionException;
+
+import com.archimatetool.editor.ui.services.ViewManager;
+import com.archimatetool.editor.views.diagnostics.DiagnosticsView;
+
+
+
+/**
+ * Command Handler to show Diagnostics View
+ * 
+ * @author Phillip Beauvoir
+ */
+public class ShowDiagnosticsViewHandler extends AbstractHandler {
+
+    @Override
+    public Object execute(ExecutionEvent event) throws ExecutionException {
+        ViewManager.toggleViewPart(DiagnosticsView.ID, true);
+        return null;
+    }
+
+}
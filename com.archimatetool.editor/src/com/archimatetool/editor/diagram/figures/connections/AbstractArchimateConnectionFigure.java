@@ -14,6 +14,7 @@ import com.archimatetool.editor.ui.ArchiLabelProvider;
 import com.archimatetool.model.IArchimateRelationship;
 import com.archimatetool.model.IConnectable;
 import com.archimatetool.model.IDiagramModelArchimateObject;
+import com.archimatetool.model.IFeatures;
 import com.archimatetool.model.IJunction;
 import com.archimatetool.model.viewpoints.ViewpointManager;
 
@@ -83,9 +84,7 @@ extends AbstractDiagramConnectionFigure implements IArchimateConnectionFigure {
         IConnectable target = getModelConnection().getTarget();
         
         if(target instanceof IDiagramModelArchimateObject && ((IDiagramModelArchimateObject)target).getArchimateElement() instanceof IJunction) {
-            return target
-                   .getFeatures()
-                   .getBoolean(IDiagramModelArchimateObject.FEATURE_HIDE_JUNCTION_ARROWS,
+            return IFeatures.getFeatureBoolean(target, IDiagramModelArchimateObject.FEATURE_HIDE_JUNCTION_ARROWS,
                            IDiagramModelArchimateObject.FEATURE_HIDE_JUNCTION_ARROWS_DEFAULT);
 
         }
@@ -100,9 +99,7 @@ extends AbstractDiagramConnectionFigure implements IArchimateConnectionFigure {
         IConnectable source = getModelConnection().getSource();
         
         if(source instanceof IDiagramModelArchimateObject && ((IDiagramModelArchimateObject)source).getArchimateElement() instanceof IJunction) {
-            return source
-                   .getFeatures()
-                   .getBoolean(IDiagramModelArchimateObject.FEATURE_HIDE_JUNCTION_ARROWS,
+            return IFeatures.getFeatureBoolean(source, IDiagramModelArchimateObject.FEATURE_HIDE_JUNCTION_ARROWS,
                            IDiagramModelArchimateObject.FEATURE_HIDE_JUNCTION_ARROWS_DEFAULT);
 
         }
@@ -70,7 +70,7 @@ public class DiagramModelUtils {
             return false;
         }
         
-        return !archimateConcept.getReferencingDiagramComponents().isEmpty();
+        return archimateConcept.isReferencedInDiagrams();
     }
 
 
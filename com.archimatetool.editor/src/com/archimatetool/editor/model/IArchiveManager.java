@@ -17,7 +17,9 @@ import org.eclipse.swt.graphics.ImageData;
 
 import com.archimatetool.editor.model.impl.ArchiveManager;
 import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.util.ArchimateBinaryResource;
 import com.archimatetool.model.util.ArchimateResourceFactory;
+import com.archimatetool.model.util.PhaseTimings;
 
 
 /**
@@ -28,8 +30,31 @@ import com.archimatetool.model.util.ArchimateResourceFactory;
 @SuppressWarnings("nls")
 public interface IArchiveManager {
     
+    /**
+     * Name of the model entry in an archive file when the model is saved in XML format
+     */
+    String MODEL_XML_ENTRY = "model.xml";
+    
+    /**
+     * Name of the model entry in an archive file when the model is saved in binary format
+     */
+    String MODEL_BINARY_ENTRY = ArchimateBinaryResource.ARCHIVE_ENTRY_NAME;
+    
     static class FACTORY {
         
+        /**
+         * Whether models can be saved in the binary format.
+         * Set with the system property "com.archimatetool.editor.binaryFormat=true"
+         */
+        private static final boolean BINARY_FORMAT_ENABLED = Boolean.getBoolean("com.archimatetool.editor.binaryFormat");
+        
+        /**
+         * @return True if models can be saved in the binary format. Models in the binary format can always be loaded.
+         */
+        public static boolean isBinaryFormatEnabled() {
+            return BINARY_FORMAT_ENABLED;
+        }
+        
         /**
          * Return a new IArchiveManager instance
          * 
@@ -45,13 +70,34 @@ public interface IArchiveManager {
          * @return True if file is a zip archive file
          */
         public static boolean isArchiveFile(File file) {
+            return getModelEntryName(file) != null;
+        }
+        
+        /**
+         * @param file The file to test
+         * @return True if file is a zip archive file containing a model in binary format
+         */
+        public static boolean isBinaryArchiveFile(File file) {
+            return MODEL_BINARY_ENTRY.equals(getModelEntryName(file));
+        }
+        
+        /**
+         * @param file The file to test
+         * @return The name of the model entry if file is a zip archive file, or null if it is not an archive file
+         */
+        public static String getModelEntryName(File file) {
             try(ZipFile zipFile = new ZipFile(file)) {
-                return zipFile.getEntry("model.xml") != null;
+                if(zipFile.getEntry(MODEL_XML_ENTRY) != null) {
+                    return MODEL_XML_ENTRY;
+                }
+                if(zipFile.getEntry(MODEL_BINARY_ENTRY) != null) {
+                    return MODEL_BINARY_ENTRY;
+                }
             }
             catch(Exception ex) {
             }
             
-            return false;
+            return null;
         }
         
         /**
@@ -61,19 +107,26 @@ public interface IArchiveManager {
          * @return A new Redource
          */
         public static Resource createResource(File file) {
-            return ArchimateResourceFactory.createNewResource(isArchiveFile(file) ?
-                                               createArchiveModelURI(file) :
+            String entryName = getModelEntryName(file);
+            return ArchimateResourceFactory.createNewResource(entryName != null ?
+                                               createArchiveModelURI(file, entryName) :
                                                URI.createFileURI(file.getAbsolutePath()));
         }
         
         /**
-         * Create a URI for the model xml file in the archive file
+         * Create a URI for the model file in the archive file.
+         * This will be the binary model entry if the archive contains one, otherwise the model xml entry.
          * 
          * @param file The archimate archive file
          * @return The URI
          */
         public static URI createArchiveModelURI(File file) {
-            return URI.createURI(getArchiveFilePath(file) + "!/model.xml");
+            String entryName = getModelEntryName(file);
+            return createArchiveModelURI(file, entryName != null ? entryName : MODEL_XML_ENTRY);
+        }
+        
+        private static URI createArchiveModelURI(File file, String entryName) {
+            return URI.createURI(getArchiveFilePath(file) + "!/" + entryName);
         }
         
         /**
@@ -95,6 +148,13 @@ public interface IArchiveManager {
      */
     boolean useArchiveFormat();
     
+    /**
+     * @return Whether the model is saved in the compact binary format. If true the model is always saved in archive format.
+     */
+    default boolean useBinaryFormat() {
+        return false;
+    }
+    
     /**
      * Add an image from an image file to this Archive Manager's storage cache.
      * If the image already exists the existing image path is returned.
@@ -174,6 +234,17 @@ public interface IArchiveManager {
      */
     void saveModel() throws IOException;
     
+    /**
+     * Save the Model and any images to an archive file and record the time taken by each phase of saving
+     * @param timings The phase timings to add to
+     * @throws IOException
+     */
+    default void saveModel(PhaseTimings timings) throws IOException {
+        long startTime = PhaseTimings.now();
+        saveModel();
+        timings.add("save", startTime); //$NON-NLS-1$
+    }
+    
     /**
      * Clone this ArchiveManager with a copy of this one but with the given model
      * 
@@ -121,6 +121,16 @@ public interface IEditorModelManager {
      */
     boolean saveModel(IArchimateModel model) throws IOException;
     
+    /**
+     * Save model asking user for file name if needed.
+     * A snapshot of the model is saved in a background Job so that the model can be edited while it is saved.
+     * The model is marked as saved when the Job has finished if it hasn't been changed since the snapshot.
+     * @param model
+     * @return false if user cancels or the model can't be saved
+     * @throws IOException
+     */
+    boolean saveModelInBackground(IArchimateModel model) throws IOException;
+    
     /**
      * Save model as asking user for file name
      * @param model
@@ -7,15 +7,21 @@ package com.archimatetool.editor.model;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.widgets.Shell;
 
@@ -28,6 +34,7 @@ import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimateElement;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IArchimateModelObject;
+import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IArchimateRelationship;
 import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.IDiagramModelArchimateComponent;
@@ -38,6 +45,8 @@ import com.archimatetool.model.IFolder;
 import com.archimatetool.model.IIdentifier;
 import com.archimatetool.model.IProfile;
 import com.archimatetool.model.IProfiles;
+import com.archimatetool.model.util.IModelContentListener;
+import com.archimatetool.model.util.LazyDiagramContents;
 
 
 /**
@@ -58,6 +67,12 @@ public class ModelChecker {
     }
     
     /**
+     * Check all of the objects in the model.
+     * The contents of each top level folder are checked in parallel. The model must not be changed while it is checked.<p>
+     * 
+     * Diagram models whose children have not been loaded yet are not loaded. Their children were checked when they were
+     * read and their diagram components are only created when they are loaded, so they are left out of both sides of the
+     * instance count check.
      * @return True if OK, false if not OK
      */
     public boolean checkAll() {
@@ -68,69 +83,201 @@ public class ModelChecker {
             return true;
         }
         
-        // Instance count map
-        Map<IArchimateConcept, Integer> dmcMap = new HashMap<>();
+        LazyDiagramContents.runWithoutLoading(this::checkAllObjects);
+        
+        boolean isOK = errorMessages.isEmpty();
+        
+        // Track changes to the model from now so that the next check only has to check the changed objects
+        if(isOK) {
+            ChangeTracker.reset(model);
+        }
         
+        return isOK;
+    }
+    
+    private void checkAllObjects() {
         // Model ID
         errorMessages.addAll(checkHasIdentifier(model));
         
         // not that important
         // addErrorMessages(checkFolderStructure());
         
-        // Iterate through all child objects in the model...
-        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
-            EObject eObject = iter.next();
-            
-            // Identifier
-            if(eObject instanceof IIdentifier identifier) {
-                errorMessages.addAll(checkHasIdentifier(identifier));
-            }
-            
-            // Relation
-            if(eObject instanceof IArchimateRelationship relationship) {
-                errorMessages.addAll(checkRelationship(relationship));
+        // Check all child objects in the model, partitioned by the model's top level objects (folders and profiles)...
+        List<CheckResult> results = new ArrayList<>(model.eContents()).parallelStream()
+                .map(eObject -> {
+                    CheckResult result = new CheckResult(new ArrayList<>(), new HashMap<>());
+                    LazyDiagramContents.runWithoutLoading(() -> checkObjectAndContents(eObject, result));
+                    return result;
+                })
+                .toList();
+        
+        // Instance count map
+        Map<IArchimateConcept, Integer> dmcMap = new HashMap<>();
+        
+        for(CheckResult result : results) {
+            errorMessages.addAll(result.messages());
+            result.instanceCounts().forEach((concept, count) -> dmcMap.merge(concept, count, Integer::sum));
+        }
+        
+        // Now check Diagram Model Object reference count
+        errorMessages.addAll(checkDiagramComponentInstanceCount(dmcMap));
+        
+        // Sub-class checks are run on this thread
+        if(hasExtensionCheck()) {
+            for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
+                errorMessages.addAll(checkObject(iter.next()));
             }
-            
-            // Diagram Model ArchiMate Object
-            if(eObject instanceof IDiagramModelArchimateObject dmo) {
-                errorMessages.addAll(checkDiagramModelArchimateObject(dmo));
-                incrementInstanceCount(dmo, dmcMap);
+        }
+    }
+    
+    /**
+     * @return true if a sub-class might add a check in {@link #checkObject(EObject)}
+     */
+    private boolean hasExtensionCheck() {
+        return getClass() != ModelChecker.class;
+    }
+    
+    /**
+     * Check the objects in the model that have changed since the last successful check, and the objects that refer to them.
+     * If the model has not been checked successfully before all of the objects are checked.
+     * Diagram models whose children have not been loaded yet are not loaded.
+     * @return True if OK, false if not OK
+     */
+    public boolean checkChanges() {
+        ChangeTracker tracker = (ChangeTracker)model.getAdapter(ChangeTracker.class);
+        Set<EObject> changed = tracker != null ? tracker.getChangedObjects() : null;
+        
+        if(NO_MODELCHECK || changed == null) {
+            return checkAll();
+        }
+        
+        errorMessages = new ArrayList<>();
+        
+        LazyDiagramContents.runWithoutLoading(() -> checkChangedObjects(changed));
+        
+        if(errorMessages.isEmpty()) {
+            tracker.clear();
+            return true;
+        }
+        
+        return false;
+    }
+    
+    private void checkChangedObjects(Set<EObject> changed) {
+        // The changed objects and the objects that refer to them
+        Set<EObject> objects = new LinkedHashSet<>();
+        Set<IArchimateConcept> concepts = new LinkedHashSet<>();
+        for(EObject eObject : changed) {
+            addObjectsToCheck(eObject, objects, concepts);
+        }
+        
+        // Check the objects that are still in the model
+        CheckResult result = new CheckResult(errorMessages, new HashMap<>());
+        for(EObject eObject : objects) {
+            if(eObject == model) {
+                errorMessages.addAll(checkHasIdentifier(model));
             }
-            
-            // Diagram Model Connection
-            if(eObject instanceof IDiagramModelConnection dmc) {
-                errorMessages.addAll(checkDiagramModelConnection(dmc));
+            else if(EcoreUtil.getRootContainer(eObject) == model) {
+                checkOne(eObject, result);
+                errorMessages.addAll(checkObject(eObject));
             }
+        }
+        
+        // Check the Diagram Model Object reference count of the concepts that have changed or are referenced by changed objects
+        for(IArchimateConcept concept : concepts) {
+            errorMessages.addAll(checkDiagramComponentInstanceCount(concept, objects));
+        }
+    }
+    
+    /**
+     * Error messages and the Diagram Model Component instance counts of concepts found when checking a part of the model
+     */
+    private record CheckResult(List<String> messages, Map<IArchimateConcept, Integer> instanceCounts) {
+    }
+    
+    private void checkObjectAndContents(EObject eObject, CheckResult result) {
+        checkOne(eObject, result);
+        
+        for(Iterator<EObject> iter = eObject.eAllContents(); iter.hasNext();) {
+            checkOne(iter.next(), result);
+        }
+    }
+    
+    /**
+     * Run the built-in checks on a child object of the model. This can be called on any thread.
+     */
+    private void checkOne(EObject eObject, CheckResult result) {
+        List<String> messages = result.messages();
+        
+        // Identifier
+        if(eObject instanceof IIdentifier identifier) {
+            messages.addAll(checkHasIdentifier(identifier));
+        }
+        
+        // Relation
+        if(eObject instanceof IArchimateRelationship relationship) {
+            messages.addAll(checkRelationship(relationship));
+        }
+        
+        // Diagram Model ArchiMate Object
+        if(eObject instanceof IDiagramModelArchimateObject dmo) {
+            messages.addAll(checkDiagramModelArchimateObject(dmo));
+            incrementInstanceCount(dmo, result.instanceCounts());
+        }
+        
+        // Diagram Model Connection
+        if(eObject instanceof IDiagramModelConnection dmc) {
+            messages.addAll(checkDiagramModelConnection(dmc));
+        }
 
-            // Diagram Model ArchiMate Connection
-            if(eObject instanceof IDiagramModelArchimateConnection dmc) {
-                errorMessages.addAll(checkDiagramModelArchimateConnection(dmc));
-                incrementInstanceCount(dmc, dmcMap);
-            }
-            
-            // Concept or Diagram is in correct Folder
-            if(eObject instanceof IArchimateConcept || eObject instanceof IDiagramModel) {
-                errorMessages.addAll(checkObjectInCorrectFolder((IArchimateModelObject)eObject));
-            }
-            
-            // Folders contain correct objects
-            if(eObject instanceof IFolder folder) {
-                errorMessages.addAll(checkFolderContainsCorrectObjects(folder));
-            }
-            
-            // Profiles
-            if(eObject instanceof IProfiles profiles) {
-                errorMessages.addAll(checkProfiles(profiles));
-            }
-            
-            // Extension
-            errorMessages.addAll(checkObject(eObject));
+        // Diagram Model ArchiMate Connection
+        if(eObject instanceof IDiagramModelArchimateConnection dmc) {
+            messages.addAll(checkDiagramModelArchimateConnection(dmc));
+            incrementInstanceCount(dmc, result.instanceCounts());
         }
         
-        // Now check Diagram Model Object reference count
-        errorMessages.addAll(checkDiagramComponentInstanceCount(dmcMap));
+        // Concept or Diagram is in correct Folder
+        if(eObject instanceof IArchimateConcept || eObject instanceof IDiagramModel) {
+            messages.addAll(checkObjectInCorrectFolder((IArchimateModelObject)eObject));
+        }
+        
+        // Folders contain correct objects
+        if(eObject instanceof IFolder folder) {
+            messages.addAll(checkFolderContainsCorrectObjects(folder));
+        }
+        
+        // Profiles
+        if(eObject instanceof IProfiles profiles) {
+            messages.addAll(checkProfiles(profiles));
+        }
+    }
+    
+    /**
+     * Add a changed object to the objects to check together with the objects whose checks depend on it
+     * @param objects The objects to check
+     * @param concepts The concepts whose Diagram Model Component instance count should be checked
+     */
+    private void addObjectsToCheck(EObject eObject, Set<EObject> objects, Set<IArchimateConcept> concepts) {
+        if(!objects.add(eObject)) {
+            return;
+        }
+        
+        // Relations connected to the concept and diagram components that reference it
+        if(eObject instanceof IArchimateConcept concept) {
+            objects.addAll(concept.getSourceRelationships());
+            objects.addAll(concept.getTargetRelationships());
+            objects.addAll(concept.getReferencingDiagramComponents());
+            concepts.add(concept);
+        }
         
-        return errorMessages.isEmpty();
+        // The concept it references and its connections which must match it
+        if(eObject instanceof IDiagramModelArchimateComponent dmc) {
+            if(dmc.getArchimateConcept() != null) {
+                concepts.add(dmc.getArchimateConcept());
+            }
+            objects.addAll(dmc.getSourceConnections());
+            objects.addAll(dmc.getTargetConnections());
+        }
     }
     
     public List<String> getErrorMessages() {
@@ -412,6 +559,43 @@ public class ModelChecker {
         }
     }
     
+    /**
+     * Check the actual IDiagramModelArchimateComponent instance count of a concept against the concept's reported instance count.
+     * This is the same as the check of all of the concepts in the model for one concept.
+     * @param checkedObjects The objects being checked which include all of the diagram components that refer to the concept and have changed
+     */
+    private List<String> checkDiagramComponentInstanceCount(IArchimateConcept concept, Set<EObject> checkedObjects) {
+        List<? extends IDiagramModelArchimateComponent> reported = concept.getReferencingDiagramComponents();
+        
+        // Diagram components in the model that refer to the concept
+        Set<EObject> actual = new HashSet<>();
+        for(EObject eObject : reported) {
+            if(refersTo(eObject, concept)) {
+                actual.add(eObject);
+            }
+        }
+        for(EObject eObject : checkedObjects) {
+            if(refersTo(eObject, concept)) {
+                actual.add(eObject);
+            }
+        }
+        
+        if(!actual.isEmpty() && actual.size() != reported.size()) {
+            String name = "(" + concept.getId() + ")"; //$NON-NLS-1$ //$NON-NLS-2$
+            return List.of(NLS.bind(Messages.ModelChecker_24, name));
+        }
+        
+        return List.of();
+    }
+    
+    /**
+     * @return true if the object is a diagram component in the model that refers to the concept
+     */
+    private boolean refersTo(EObject eObject, IArchimateConcept concept) {
+        return eObject instanceof IDiagramModelArchimateComponent dmc && dmc.getArchimateConcept() == concept
+                && EcoreUtil.getRootContainer(dmc) == model;
+    }
+    
     /**
      * Check the actual IDiagramModelArchimateComponent instance count against the concept's reported instance count
      */
@@ -430,4 +614,96 @@ public class ModelChecker {
         
         return messages;
     }
+    
+    /**
+     * Records the objects in a model that have changed since the last successful check of the model.
+     * This is stored as an adapter of the model.
+     */
+    private static class ChangeTracker implements IModelContentListener {
+        
+        private Set<EObject> changed = new HashSet<>();
+        
+        /**
+         * Set if a change can't be checked by checking the changed objects
+         */
+        private boolean checkAll;
+        
+        /**
+         * Start tracking changes to the model, or clear the changes if they are already tracked
+         */
+        static void reset(IArchimateModel model) {
+            ChangeTracker tracker = (ChangeTracker)model.getAdapter(ChangeTracker.class);
+            
+            if(tracker == null) {
+                tracker = new ChangeTracker();
+                model.addModelContentListener(tracker);
+                model.setAdapter(ChangeTracker.class, tracker);
+            }
+            
+            tracker.clear();
+        }
+        
+        /**
+         * @return The changed objects, including objects that have been removed from the model, or null if all objects must be checked
+         */
+        Set<EObject> getChangedObjects() {
+            return checkAll ? null : changed;
+        }
+        
+        void clear() {
+            changed = new HashSet<>();
+            checkAll = false;
+        }
+        
+        @Override
+        public void notifyChanged(Notification msg) {
+            if(checkAll || !(msg.getNotifier() instanceof EObject notifier)) {
+                return;
+            }
+            
+            // Profiles are checked against every concept that uses them
+            if(notifier instanceof IProfile || msg.getFeature() == IArchimatePackage.Literals.ARCHIMATE_MODEL__PROFILES) {
+                checkAll = true;
+                changed = new HashSet<>();
+                return;
+            }
+            
+            changed.add(notifier);
+            
+            // The folder type determines which objects can be in the folder
+            if(msg.getFeature() == IArchimatePackage.Literals.FOLDER__TYPE) {
+                addContents(notifier);
+            }
+            
+            // Added and removed objects and their contents
+            switch(msg.getEventType()) {
+                case Notification.SET, Notification.UNSET, Notification.ADD, Notification.REMOVE -> {
+                    addObject(msg.getNewValue());
+                    addObject(msg.getOldValue());
+                }
+                case Notification.ADD_MANY -> {
+                    ((Collection<?>)msg.getNewValue()).forEach(this::addObject);
+                }
+                case Notification.REMOVE_MANY -> {
+                    ((Collection<?>)msg.getOldValue()).forEach(this::addObject);
+                }
+                default -> {}
+            }
+        }
+        
+        private void addObject(Object value) {
+            if(value instanceof EObject eObject && changed.add(eObject)) {
+                addContents(eObject);
+            }
+        }
+        
+        private void addContents(EObject eObject) {
+            // Unloaded diagram model children are not loaded, they have not changed
+            LazyDiagramContents.runWithoutLoading(() -> {
+                for(Iterator<EObject> iter = eObject.eAllContents(); iter.hasNext();) {
+                    changed.add(iter.next());
+                }
+            });
+        }
+    }
 }
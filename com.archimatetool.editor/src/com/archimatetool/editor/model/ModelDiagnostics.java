@@ -0,0 +1,92 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.Platform;
+
+import com.archimatetool.editor.Logger;
+import com.archimatetool.model.util.PhaseTimings;
+
+/**
+ * Keeps the phase timings of the most recent model loads and saves so that they can be shown in the Diagnostics View.<p>
+ *
+ * If "-logModelTimings" is set in Program arguments the timings are also written to the log.
+ *
+ * @author Phillip Beauvoir
+ */
+public final class ModelDiagnostics {
+
+    // If this is set in Program arguments then log the timings
+    private static boolean LOG_TIMINGS = Arrays.asList(Platform.getApplicationArgs()).contains("-logModelTimings"); //$NON-NLS-1$
+
+    // Maximum number of timings to keep
+    private static final int MAX_HISTORY = 50;
+
+    private static final Deque<PhaseTimings> history = new ArrayDeque<>();
+
+    private static final List<Consumer<PhaseTimings>> listeners = new CopyOnWriteArrayList<>();
+
+    private ModelDiagnostics() {
+    }
+
+    /**
+     * Add the timings of a load or save. This can be called on any thread.
+     * @param timings The timings
+     */
+    public static void add(PhaseTimings timings) {
+        synchronized(history) {
+            if(history.size() == MAX_HISTORY) {
+                history.removeFirst();
+            }
+            history.addLast(timings);
+        }
+
+        if(LOG_TIMINGS) {
+            Logger.info(timings.toString());
+        }
+
+        for(Consumer<PhaseTimings> listener : listeners) {
+            listener.accept(timings);
+        }
+    }
+
+    /**
+     * @return The timings of the most recent loads and saves, oldest first
+     */
+    public static List<PhaseTimings> getHistory() {
+        synchronized(history) {
+            return new ArrayList<>(history);
+        }
+    }
+
+    /**
+     * Clear the history
+     */
+    public static void clear() {
+        synchronized(history) {
+            history.clear();
+        }
+    }
+
+    /**
+     * Add a listener that is notified when timings are added. The listener can be called on any thread.
+     */
+    public static void addListener(Consumer<PhaseTimings> listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(Consumer<PhaseTimings> listener) {
+        listeners.remove(listener);
+    }
+}
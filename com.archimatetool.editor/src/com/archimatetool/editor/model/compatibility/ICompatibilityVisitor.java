@@ -0,0 +1,51 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.model.compatibility;
+
+import java.util.Iterator;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+
+import com.archimatetool.model.IArchimateModel;
+
+/**
+ * Compatibility Handler that fixes the objects in a model one at a time.<p>
+ *
+ * {@link ModelCompatibility} visits the model's objects for all applicable visitors in one traversal of the model
+ * instead of each handler traversing the model itself.
+ *
+ * @author Phillip Beauvoir
+ */
+public interface ICompatibilityVisitor extends ICompatibilityHandler {
+
+    /**
+     * @param model The model
+     * @return true if the model needs fixing. If false the model is not traversed for this handler.
+     */
+    boolean isApplicable(IArchimateModel model);
+
+    /**
+     * Fix an object in the model. This is called for every object in the model in document order.
+     * @param eObject The object
+     * @throws CompatibilityHandlerException
+     */
+    void visit(EObject eObject) throws CompatibilityHandlerException;
+
+    /**
+     * Fix the issue with a traversal of the model for this handler alone
+     */
+    @Override
+    default void fixCompatibility(Resource resource) throws CompatibilityHandlerException {
+        IArchimateModel model = (IArchimateModel)resource.getContents().get(0);
+
+        if(isApplicable(model)) {
+            for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
+                visit(iter.next());
+            }
+        }
+    }
+}
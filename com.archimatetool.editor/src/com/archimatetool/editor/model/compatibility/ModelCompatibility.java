@@ -6,12 +6,14 @@
 package com.archimatetool.editor.model.compatibility;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtensionRegistry;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.Resource.Diagnostic;
 import org.eclipse.emf.ecore.xmi.ClassNotFoundException;
@@ -106,15 +108,27 @@ public class ModelCompatibility {
     }
     
     /**
-     * Fix any compatibility issues in registered handlers
+     * Fix any compatibility issues in registered handlers.
+     * Handlers are applied in the order they are registered. Consecutive applicable {@link ICompatibilityVisitor}s share one traversal of the model
+     * and visitors that are not applicable to the model are skipped.
      * @throws CompatibilityHandlerException 
      */
     public void fixCompatibility() throws CompatibilityHandlerException {
+        IArchimateModel model = (IArchimateModel)fResource.getContents().get(0);
+        List<ICompatibilityVisitor> visitors = new ArrayList<>();
+        
         IExtensionRegistry registry = Platform.getExtensionRegistry();
         for(IConfigurationElement configurationElement : registry.getConfigurationElementsFor(ICompatibilityHandler.EXTENSION_ID)) {
             try {
                 ICompatibilityHandler handler = (ICompatibilityHandler)configurationElement.createExecutableExtension("class");
-                if(handler != null) {
+                if(handler instanceof ICompatibilityVisitor visitor) {
+                    if(visitor.isApplicable(model)) {
+                        visitors.add(visitor);
+                    }
+                }
+                else if(handler != null) {
+                    // Visitors registered before this handler are applied first
+                    visit(model, visitors);
                     handler.fixCompatibility(fResource);
                 }
             } 
@@ -122,5 +136,25 @@ public class ModelCompatibility {
                 ex.printStackTrace();
             } 
         }
+        
+        visit(model, visitors);
+    }
+    
+    /**
+     * Visit each object in the model with each of the visitors in turn and clear the list of visitors
+     */
+    private void visit(IArchimateModel model, List<ICompatibilityVisitor> visitors) throws CompatibilityHandlerException {
+        if(visitors.isEmpty()) {
+            return;
+        }
+        
+        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
+            EObject eObject = iter.next();
+            for(ICompatibilityVisitor visitor : visitors) {
+                visitor.visit(eObject);
+            }
+        }
+        
+        visitors.clear();
     }
 }
@@ -5,13 +5,9 @@
  */
 package com.archimatetool.editor.model.compatibility.handlers;
 
-import java.util.Iterator;
-
 import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.resource.Resource;
 
-import com.archimatetool.editor.model.compatibility.CompatibilityHandlerException;
-import com.archimatetool.editor.model.compatibility.ICompatibilityHandler;
+import com.archimatetool.editor.model.compatibility.ICompatibilityVisitor;
 import com.archimatetool.editor.utils.StringUtils;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IDiagramModelArchimateObject;
@@ -27,15 +23,11 @@ import com.archimatetool.model.ITextAlignment;
  * 
  * @author Phillip Beauvoir
  */
-public class DefaultTextAlignmentHandler implements ICompatibilityHandler {
+public class DefaultTextAlignmentHandler implements ICompatibilityVisitor {
     
     @Override
-    public void fixCompatibility(Resource resource) throws CompatibilityHandlerException {
-        IArchimateModel model = (IArchimateModel)resource.getContents().get(0);
-        
-        if(isVersion(model)) {
-            convertTextPosition(model);
-        }
+    public boolean isApplicable(IArchimateModel model) {
+        return isVersion(model);
     }
     
     public boolean isVersion(IArchimateModel model) {
@@ -43,18 +35,18 @@ public class DefaultTextAlignmentHandler implements ICompatibilityHandler {
         return version != null && StringUtils.compareVersionNumbers(version, "4.4.0") < 0; //$NON-NLS-1$
     }
     
-    private void convertTextPosition(IArchimateModel model) {
-        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
-            EObject eObject = iter.next();
+    /**
+     * Convert text position
+     */
+    @Override
+    public void visit(EObject eObject) {
+        if((eObject instanceof IDiagramModelArchimateObject && ((IDiagramModelArchimateObject)eObject).getArchimateConcept() instanceof IGrouping)
+                || (eObject instanceof IDiagramModelGroup)) {
             
-            if((eObject instanceof IDiagramModelArchimateObject && ((IDiagramModelArchimateObject)eObject).getArchimateConcept() instanceof IGrouping)
-                    || (eObject instanceof IDiagramModelGroup)) {
-                
-                if(((IDiagramModelObject)eObject).getTextAlignment() == ITextAlignment.TEXT_ALIGNMENT_CENTER) {
-                    ((IDiagramModelObject)eObject).setTextAlignment(ITextAlignment.TEXT_ALIGNMENT_LEFT);
-                }
-                
+            if(((IDiagramModelObject)eObject).getTextAlignment() == ITextAlignment.TEXT_ALIGNMENT_CENTER) {
+                ((IDiagramModelObject)eObject).setTextAlignment(ITextAlignment.TEXT_ALIGNMENT_LEFT);
             }
+            
         }
     }
 }
@@ -5,13 +5,9 @@
  */
 package com.archimatetool.editor.model.compatibility.handlers;
 
-import java.util.Iterator;
-
 import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.resource.Resource;
 
-import com.archimatetool.editor.model.compatibility.CompatibilityHandlerException;
-import com.archimatetool.editor.model.compatibility.ICompatibilityHandler;
+import com.archimatetool.editor.model.compatibility.ICompatibilityVisitor;
 import com.archimatetool.editor.utils.StringUtils;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IDiagramModelObject;
@@ -24,16 +20,11 @@ import com.archimatetool.model.IDiagramModelObject;
  * 
  * @author Phillip Beauvoir
  */
-public class OutlineOpacityHandler implements ICompatibilityHandler {
+public class OutlineOpacityHandler implements ICompatibilityVisitor {
     
     @Override
-    public void fixCompatibility(Resource resource) throws CompatibilityHandlerException {
-        IArchimateModel model = (IArchimateModel)resource.getContents().get(0);
-        
-        // Check all widths and heights
-        if(isVersion(model)) {
-            setDefaultOutlineOpacity(model);
-        }
+    public boolean isApplicable(IArchimateModel model) {
+        return isVersion(model);
     }
     
     boolean isVersion(IArchimateModel model) {
@@ -42,13 +33,14 @@ public class OutlineOpacityHandler implements ICompatibilityHandler {
                 StringUtils.compareVersionNumbers(version, "4.4.0") == 0); //$NON-NLS-1$
     }
 
-    void setDefaultOutlineOpacity(IArchimateModel model) {
-        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
-            EObject eObject = iter.next();
-            if(eObject instanceof IDiagramModelObject) {
-                IDiagramModelObject dmo = (IDiagramModelObject)eObject;
-                dmo.setLineAlpha(dmo.getAlpha());
-            }
+    /**
+     * Set default outline opacity
+     */
+    @Override
+    public void visit(EObject eObject) {
+        if(eObject instanceof IDiagramModelObject) {
+            IDiagramModelObject dmo = (IDiagramModelObject)eObject;
+            dmo.setLineAlpha(dmo.getAlpha());
         }
     }
     
@@ -5,22 +5,23 @@
  */
 package com.archimatetool.editor.model.impl;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
@@ -35,11 +36,15 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.widgets.Display;
 
+import com.archimatetool.editor.ArchiPlugin;
 import com.archimatetool.editor.model.IArchiveManager;
+import com.archimatetool.editor.preferences.IPreferenceConstants;
 import com.archimatetool.editor.utils.FileUtils;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IDiagramModelImageProvider;
+import com.archimatetool.model.util.ArchimateBinaryResource;
 import com.archimatetool.model.util.ArchimateResourceFactory;
+import com.archimatetool.model.util.PhaseTimings;
 
 
 
@@ -85,6 +90,13 @@ public class ArchiveManager implements IArchiveManager {
         File gitFolder = new File(fModel.getFile().getParentFile(), ".git");
         return !(gitFolder.exists() && gitFolder.isDirectory());
     }
+    
+    @Override
+    public boolean useBinaryFormat() {
+        // Binary format is only used in an archive file
+        return FACTORY.isBinaryFormatEnabled() && useArchiveFormat()
+                && ArchiPlugin.getInstance().getPreferenceStore().getBoolean(IPreferenceConstants.SAVE_BINARY_FORMAT);
+    }
 
     @Override
     public String addImageFromFile(File file) throws IOException {
@@ -156,14 +168,15 @@ public class ArchiveManager implements IArchiveManager {
     }
     
     /**
-     * Load images from model's archive file or folder
+     * Load images from model's archive file or folder.
+     * Images in the model's archive file are read from the file when they are first needed.
      */
     @Override
     public void loadImages() throws IOException {
         if(!fImagesLoaded && fModel.getFile() != null) {
             // Archive format
             if(FACTORY.isArchiveFile(fModel.getFile())) {
-                fImagesLoaded = loadImagesFromModelFile(fModel.getFile());
+                fImagesLoaded = loadImagesFromArchiveFile(fModel.getFile(), true);
             }
             // Else try and load if there is an "images" folder
             else {
@@ -174,6 +187,16 @@ public class ArchiveManager implements IArchiveManager {
     
     @Override
     public boolean loadImagesFromModelFile(File file) throws IOException {
+        // Another model's file might be deleted or changed so read the images now
+        return loadImagesFromArchiveFile(file, false);
+    }
+    
+    /**
+     * Load images from an archive file
+     * @param file The archive file
+     * @param lazy If true the images are read from the archive file when they are needed, else they are read now
+     */
+    private boolean loadImagesFromArchiveFile(File file, boolean lazy) throws IOException {
         if(file == null || !file.exists() || !FACTORY.isArchiveFile(file)) {
             return false;
         }
@@ -185,8 +208,14 @@ public class ArchiveManager implements IArchiveManager {
                 if(entryName.startsWith("images/")) {
                     // Add to ByteArrayStorage
                     if(!byteArrayStorage.hasEntry(entryName)) {
-                        InputStream in = zipFile.getInputStream(zipEntry);
-                        byteArrayStorage.addStreamEntry(entryName, in);
+                        // The size and CRC are needed to check that the entry hasn't changed when it is read later
+                        if(lazy && zipEntry.getSize() != -1 && zipEntry.getCrc() != -1) {
+                            byteArrayStorage.addArchiveEntry(entryName, file, zipEntry);
+                        }
+                        else {
+                            InputStream in = zipFile.getInputStream(zipEntry);
+                            byteArrayStorage.addStreamEntry(entryName, in);
+                        }
                     }
                 }
             }
@@ -296,58 +325,135 @@ public class ArchiveManager implements IArchiveManager {
     
     @Override
     public void saveModel() throws IOException {
+        saveModel(new PhaseTimings("Save")); //$NON-NLS-1$
+    }
+    
+    @Override
+    public void saveModel(PhaseTimings timings) throws IOException {
         File file = fModel.getFile();
         if(file == null) {
             return;
         }
         
-        // Archive format
-        if(useArchiveFormat()) {
-            // If the model has images use archive format
-            if(hasImages()) {
-                saveModelToArchiveFile(file);
+        // If the model has images or is saved in binary format use archive format
+        if(useArchiveFormat() && (hasImages() || useBinaryFormat())) {
+            // Read any images that are still in the file and won't be in the saved file
+            long startTime = PhaseTimings.now();
+            Set<String> imagePaths = getImagePaths();
+            byteArrayStorage.loadArchiveEntries(file, entryName -> !imagePaths.contains(entryName));
+            timings.add("readImages", startTime); //$NON-NLS-1$
+            
+            saveModelToArchiveFile(file, imagePaths, timings);
+            return;
+        }
+        
+        // The file is overwritten so images are not read from it while it is written
+        synchronized(ByteArrayStorage.getFileLock(file)) {
+            // Read any images that are still in the file
+            long startTime = PhaseTimings.now();
+            byteArrayStorage.loadArchiveEntries(file, entryName -> true);
+            timings.add("readImages", startTime); //$NON-NLS-1$
+            
+            // Archive format so just save the model
+            if(useArchiveFormat()) {
+                startTime = PhaseTimings.now();
+                saveResource(file);
+                timings.add("serialize", startTime, file.length()); //$NON-NLS-1$
             }
-            // Else just save the model
+            // Folder format
             else {
-                saveResource(file);
+                saveModelWithImagesFolder(file, timings);
             }
         }
-        // Folder format
-        else {
-            saveModelWithImagesFolder(file);
-        }
     }
     
     @Override
     public IArchiveManager clone(IArchimateModel model) {
         ArchiveManager archiveManager = new ArchiveManager(model);
         
-        for(Entry<String, byte[]> entry : byteArrayStorage.getEntrySet()) {
-            archiveManager.byteArrayStorage.addByteContentEntry(entry.getKey(), entry.getValue());
-        }
+        // If the clone is saved to this model's file then images that are not used in the model will not be in the file
+        // so read them now in case they are needed again (undo)
+        Set<String> imagePaths = getImagePaths();
+        byteArrayStorage.loadArchiveEntries(fModel.getFile(), entryName -> !imagePaths.contains(entryName));
+        
+        byteArrayStorage.copyTo(archiveManager.byteArrayStorage);
         
         return archiveManager;
     }
     
     /**
-     * Save the model to Archive File format
+     * Replace the images in memory with the saved images in the archive file so that they are read from the file when needed
+     */
+    private void addArchiveEntries(File file) throws IOException {
+        try(ZipFile zipFile = new ZipFile(file)) {
+            for(Enumeration<? extends ZipEntry> enm = zipFile.entries(); enm.hasMoreElements();) {
+                ZipEntry zipEntry = enm.nextElement();
+                String entryName = zipEntry.getName();
+                if(entryName.startsWith("images/") && byteArrayStorage.hasEntry(entryName) && zipEntry.getSize() != -1 && zipEntry.getCrc() != -1) {
+                    byteArrayStorage.addArchiveEntry(entryName, file, zipEntry);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Save the model to Archive File format.
+     * The archive is written to a temp file in the same folder which then replaces the file. So the file is not left
+     * incomplete if saving fails, and unchanged images can be copied from the file while the new archive is written.
      */
-    private void saveModelToArchiveFile(File file) throws IOException {
-        try(ZipOutputStream zOut = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
-            // Add the model xml file
-            saveModelToArchiveFile(zOut);
+    private void saveModelToArchiveFile(File file, Set<String> imagePaths, PhaseTimings timings) throws IOException {
+        File tmpFile = File.createTempFile("~" + file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+        
+        try {
+            try(ZipOutputStream zOut = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                // Add the model xml file
+                long startTime = PhaseTimings.now();
+                long size = saveModelToArchiveFile(file, zOut);
+                timings.add("serialize", startTime, size); //$NON-NLS-1$
+                
+                // Add any images
+                startTime = PhaseTimings.now();
+                byteArrayStorage.writeEntries(imagePaths, zOut);
+                timings.add("images", startTime); //$NON-NLS-1$
+            }
             
-            // Add any images
-            saveImagesToArchiveFile(zOut);
+            // Images are not read from the file while it is replaced
+            synchronized(ByteArrayStorage.getFileLock(file)) {
+                long startTime = PhaseTimings.now();
+                replaceFile(tmpFile.toPath(), file.toPath());
+                
+                // The saved images can now be read from the file when needed
+                addArchiveEntries(file);
+                timings.add("replace", startTime, file.length()); //$NON-NLS-1$
+            }
+        }
+        finally {
+            tmpFile.delete();
+        }
+    }
+    
+    /**
+     * Replace target with source, atomically if the file system supports it
+     */
+    private void replaceFile(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
         }
     }
     
     /**
      * Save the model not in archive format, with images in an "images" file if the model references any images
      */
-    private void saveModelWithImagesFolder(File modelFile) throws IOException {
+    private void saveModelWithImagesFolder(File modelFile, PhaseTimings timings) throws IOException {
         // Save the model file
+        long startTime = PhaseTimings.now();
         saveResource(modelFile);
+        timings.add("serialize", startTime, modelFile.length()); //$NON-NLS-1$
+        
+        startTime = PhaseTimings.now();
         
         File modelFolder = getModelFolder(modelFile);
         File imagesFolder = getImagesFolder(modelFile);
@@ -382,73 +488,91 @@ public class ArchiveManager implements IArchiveManager {
                 }
             }
         }
+        
+        timings.add("images", startTime); //$NON-NLS-1$
     }
     
     /**
-     * Save the model xml file in the Archive File
+     * Save the model xml (or binary) file in the Archive File.
+     * The Resource is serialized directly into the zip entry.
+     * @return The uncompressed size of the entry
      */
-    private void saveModelToArchiveFile(ZipOutputStream zOut) throws IOException {
-        // Temp file for xml model file
-        File tmpFile = File.createTempFile("archi-", null);
-        tmpFile.deleteOnExit();
-        saveResource(tmpFile);
+    private long saveModelToArchiveFile(File file, ZipOutputStream zOut) throws IOException {
+        String entryName = useBinaryFormat() ? MODEL_BINARY_ENTRY : MODEL_XML_ENTRY;
         
-        ZipEntry zipEntry = new ZipEntry("model.xml");
-        zOut.putNextEntry(zipEntry);
+        // The entry's name in the URI will create a binary or XML Resource
+        URI uri = URI.createURI(FACTORY.getArchiveFilePath(file) + "!/" + entryName);
         
-        final int bufSize = 8192;
-        byte buf[] = new byte[bufSize];
-        int bytesRead;
+        ZipEntry zipEntry = new ZipEntry(entryName);
+        zOut.putNextEntry(zipEntry);
         
-        try(BufferedInputStream in = new BufferedInputStream(new FileInputStream(tmpFile), bufSize)) {
-            while((bytesRead = in.read(buf)) != -1) {
-                zOut.write(buf, 0, bytesRead);
+        // Don't let the Resource close the zip stream, there are more entries to write
+        OutputStream out = new FilterOutputStream(zOut) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                zOut.write(b, off, len);
             }
-            zOut.closeEntry();
+            
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        
+        saveResource(uri, out);
+        
+        zOut.closeEntry();
+        
+        return zipEntry.getSize();
+    }
+    
+    /**
+     * Save the model to Resource
+     */
+    private void saveResource(File file) throws IOException {
+        Resource resource = getResource(URI.createFileURI(file.getAbsolutePath()));
+        
+        // Catch *all* exceptions in case of XML errors
+        try {
+            resource.save(null);
         }
-        finally {
-            tmpFile.delete();
+        catch(Exception ex) {
+            throw new IOException(ex);
         }
     }
     
     /**
-     * Save the model's images to the archive file
+     * Save the model to Resource, writing to the given stream
      */
-    private void saveImagesToArchiveFile(ZipOutputStream zOut) throws IOException {
-        for(String imagePath : getImagePaths()) {
-            byte[] bytes = byteArrayStorage.getEntry(imagePath);
-            if(bytes != null) {
-                ZipEntry zipEntry = new ZipEntry(imagePath);
-                zOut.putNextEntry(zipEntry);
-                zOut.write(bytes);
-                zOut.closeEntry();
-            }
+    private void saveResource(URI uri, OutputStream out) throws IOException {
+        Resource resource = getResource(uri);
+        
+        // Catch *all* exceptions in case of XML errors
+        try {
+            resource.save(out, null);
+        }
+        catch(Exception ex) {
+            throw new IOException(ex);
         }
     }
     
     /**
-     * Save the model to Resource
+     * @return The model's Resource for the uri
      */
-    private void saveResource(File file) throws IOException {
+    private Resource getResource(URI uri) {
         Resource resource = fModel.eResource();
         
-        // No parent Resource set, so create a new one
-        if(resource == null) {
-            resource = ArchimateResourceFactory.createNewResource(file);
+        // No parent Resource set, or the Resource is not of the required XML or binary type, so create a new one
+        if(resource == null || (resource instanceof ArchimateBinaryResource) != ArchimateBinaryResource.isBinaryURI(uri)) {
+            resource = ArchimateResourceFactory.createNewResource(uri);
             resource.getContents().add(fModel);
         }
         // We already have a Resource, re-use it but make sure the URI is updated in case the file path has changed
         else {
-            resource.setURI(URI.createFileURI(file.getAbsolutePath()));
+            resource.setURI(uri);
         }
         
-        // Catch *all* exceptions in case of XML errors
-        try {
-            resource.save(null);
-        }
-        catch(Exception ex) {
-            throw new IOException(ex);
-        }
+        return resource;
     }
     
     // Regex pattern that matches the image path name generated by EcoreUtil.generateUUID()
@@ -11,24 +11,94 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import com.archimatetool.editor.Logger;
 
 /**
  * Byte Array Storage Unit
  * 
+ * Entries with the same bytes share the same byte array. Entries are also indexed by a hash of their contents
+ * so that finding an entry with the same bytes doesn't compare the bytes with every entry.
+ * 
+ * Entries can also be added as references to entries in an archive file. The bytes of these entries are read from the
+ * archive file when they are first requested and are kept in a cache of up to {@link #MAX_CACHE_SIZE} bytes.
+ * The least recently used entries are removed from the cache when it is full and are read again when needed.
+ * 
  * @author Phillip Beauvoir
  */
 public class ByteArrayStorage {
     
     private Map<String, byte[]> fdataTable = new HashMap<String, byte[]>();
     
+    /**
+     * Map of content hash to names of the entries with those bytes
+     */
+    private Map<String, Set<String>> fHashTable = new HashMap<>();
+    
+    /**
+     * Maximum size in bytes of the cached bytes of archive entries
+     */
+    static final long MAX_CACHE_SIZE = 64L * 1024 * 1024;
+    
+    /**
+     * Locks for archive files. Held while an archive file is read or written.
+     */
+    private static final Map<File, Object> fileLocks = new ConcurrentHashMap<>();
+    
+    /**
+     * Reference to an entry in an archive file
+     */
+    record ArchiveEntry(File file, String name, long size, long crc) {
+    }
+    
+    /**
+     * Entries that are read from an archive file when needed
+     */
+    private Map<String, ArchiveEntry> fArchiveTable = new HashMap<>();
+    
+    /**
+     * Map of CRC to names of archive entries with that CRC
+     */
+    private Map<Long, Set<String>> fArchiveCrcTable = new HashMap<>();
+    
+    /**
+     * Cached bytes of archive entries in least recently used order
+     */
+    private Map<String, byte[]> fCache = new LinkedHashMap<>(16, 0.75f, true);
+    private long fCacheSize;
+    
+    /**
+     * @return The lock object for an archive file
+     */
+    static Object getFileLock(File file) {
+        return fileLocks.computeIfAbsent(file.getAbsoluteFile(), f -> new Object());
+    }
+    
     InputStream getInputStream(String entryName) {
         if(entryName != null) {
-            byte[] bytes = fdataTable.get(entryName);
+            byte[] bytes = getEntry(entryName);
             if(bytes != null) {
                 return new ByteArrayInputStream(bytes);
             }
@@ -37,10 +107,37 @@ public class ByteArrayStorage {
     }
 
     String getKey(byte[] bytes) {
-        for(Entry<String, byte[]> entry : fdataTable.entrySet()) {
-            byte[] entryBytes = entry.getValue();
-            if(Arrays.equals(bytes, entryBytes)) {
-                return entry.getKey();
+        if(bytes == null) {
+            return null;
+        }
+        
+        String key = getKey(bytes, getHash(bytes));
+        if(key != null) {
+            return key;
+        }
+        
+        // Archive entries with the same CRC and size are read to compare them
+        Set<String> entryNames = fArchiveCrcTable.get(getCrc(bytes));
+        if(entryNames != null) {
+            for(String entryName : List.copyOf(entryNames)) {
+                if(fArchiveTable.get(entryName).size() == bytes.length && Arrays.equals(bytes, getEntry(entryName))) {
+                    return entryName;
+                }
+            }
+        }
+        
+        return null;
+    }
+    
+    private String getKey(byte[] bytes, String hash) {
+        Set<String> entryNames = fHashTable.get(hash);
+        
+        if(entryNames != null) {
+            for(String entryName : entryNames) {
+                // Entries with the same hash share the same bytes, so one comparison guards against a hash collision
+                if(Arrays.equals(bytes, fdataTable.get(entryName))) {
+                    return entryName;
+                }
             }
         }
         
@@ -53,32 +150,239 @@ public class ByteArrayStorage {
             if(bytes != null) {
                 return bytes.length;
             }
+            ArchiveEntry archiveEntry = fArchiveTable.get(entryName);
+            if(archiveEntry != null) {
+                return archiveEntry.size();
+            }
         }
         return -1;
     }
     
-    Set<Entry<String, byte[]>> getEntrySet() {
-        return Set.copyOf(fdataTable.entrySet());
+    /**
+     * Copy all entries to another storage. Archive entries are copied as references and are not read.
+     */
+    void copyTo(ByteArrayStorage storage) {
+        for(Entry<String, byte[]> entry : fdataTable.entrySet()) {
+            storage.addByteContentEntry(entry.getKey(), entry.getValue());
+        }
+        
+        for(Entry<String, ArchiveEntry> entry : fArchiveTable.entrySet()) {
+            storage.addArchiveEntry(entry.getKey(), entry.getValue());
+        }
     }
     
     Set<String> getEntryNames() {
-        return Set.copyOf(fdataTable.keySet());
+        Set<String> set = new HashSet<>(fdataTable.keySet());
+        set.addAll(fArchiveTable.keySet());
+        return Set.copyOf(set);
     }
 
     boolean hasEntries() {
-        return !fdataTable.isEmpty();
+        return !fdataTable.isEmpty() || !fArchiveTable.isEmpty();
     }
     
     boolean hasEntry(String entryName) {
-        return fdataTable.containsKey(entryName);
+        return fdataTable.containsKey(entryName) || fArchiveTable.containsKey(entryName);
     }
     
     void removeEntry(String entryName) {
-        fdataTable.remove(entryName);
+        byte[] bytes = fdataTable.remove(entryName);
+        if(bytes != null) {
+            removeHash(entryName, getHash(bytes));
+        }
+        
+        ArchiveEntry archiveEntry = fArchiveTable.remove(entryName);
+        if(archiveEntry != null) {
+            Set<String> entryNames = fArchiveCrcTable.get(archiveEntry.crc());
+            if(entryNames != null && entryNames.remove(entryName) && entryNames.isEmpty()) {
+                fArchiveCrcTable.remove(archiveEntry.crc());
+            }
+            removeCachedEntry(entryName);
+        }
     }
     
     byte[] getEntry(String entryName) {
-        return fdataTable.get(entryName);
+        byte[] bytes = fdataTable.get(entryName);
+        if(bytes != null) {
+            return bytes;
+        }
+        
+        ArchiveEntry archiveEntry = fArchiveTable.get(entryName);
+        if(archiveEntry == null) {
+            return null;
+        }
+        
+        bytes = fCache.get(entryName);
+        if(bytes == null) {
+            try {
+                bytes = readArchiveEntry(archiveEntry);
+                cacheEntry(entryName, bytes);
+            }
+            catch(IOException ex) {
+                Logger.logError("Could not read image from archive: " + entryName, ex); //$NON-NLS-1$
+            }
+        }
+        
+        return bytes;
+    }
+    
+    /**
+     * Add a reference to an entry in an archive file. The entry's bytes are read from the file when they are needed.
+     * If there are already bytes for this entry name they are kept in the cache, so they must be the same as the bytes in the file.
+     * 
+     * @param entryName The entry name
+     * @param file The archive file
+     * @param zipEntry The entry in the archive file. This must have a known size and CRC.
+     */
+    void addArchiveEntry(String entryName, File file, ZipEntry zipEntry) {
+        byte[] bytes = fdataTable.get(entryName);
+        if(bytes == null) {
+            bytes = fCache.get(entryName);
+        }
+        
+        ArchiveEntry archiveEntry = new ArchiveEntry(file.getAbsoluteFile(), zipEntry.getName(), zipEntry.getSize(), zipEntry.getCrc());
+        addArchiveEntry(entryName, archiveEntry);
+        
+        if(bytes != null && bytes.length == archiveEntry.size()) {
+            cacheEntry(entryName, bytes);
+        }
+    }
+    
+    private void addArchiveEntry(String entryName, ArchiveEntry archiveEntry) {
+        removeEntry(entryName);
+        fArchiveTable.put(entryName, archiveEntry);
+        fArchiveCrcTable.computeIfAbsent(archiveEntry.crc(), crc -> new LinkedHashSet<>()).add(entryName);
+    }
+    
+    /**
+     * Read the bytes of archive entries from an archive file and keep them in memory.
+     * This is needed before the archive file is changed.
+     * 
+     * @param file The archive file
+     * @param filter Filter on entry names of the archive entries to read
+     */
+    void loadArchiveEntries(File file, Predicate<String> filter) {
+        if(file == null) {
+            return;
+        }
+        
+        File absoluteFile = file.getAbsoluteFile();
+        
+        for(Entry<String, ArchiveEntry> entry : List.copyOf(fArchiveTable.entrySet())) {
+            String entryName = entry.getKey();
+            if(Objects.equals(absoluteFile, entry.getValue().file()) && filter.test(entryName)) {
+                byte[] bytes = getEntry(entryName);
+                if(bytes != null) {
+                    addByteContentEntry(entryName, bytes);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Write entries to a zip stream.<p>
+     * The entries are stored without compressing them again because image formats are already compressed.
+     * Archive entries that are not cached are copied from their archive file without reading them all into memory.
+     * 
+     * @param entryNames The names of the entries to write. Names that are not in the storage are ignored.
+     * @param zOut The zip stream
+     */
+    void writeEntries(Collection<String> entryNames, ZipOutputStream zOut) throws IOException {
+        Map<File, List<String>> archiveEntryNames = new HashMap<>();
+        
+        for(String entryName : entryNames) {
+            byte[] bytes = fdataTable.get(entryName);
+            if(bytes == null) {
+                bytes = fCache.get(entryName);
+            }
+            
+            if(bytes != null) {
+                putStoredEntry(zOut, entryName, bytes.length, getCrc(bytes));
+                zOut.write(bytes);
+                zOut.closeEntry();
+            }
+            else {
+                ArchiveEntry archiveEntry = fArchiveTable.get(entryName);
+                if(archiveEntry != null) {
+                    archiveEntryNames.computeIfAbsent(archiveEntry.file(), f -> new ArrayList<>()).add(entryName);
+                }
+            }
+        }
+        
+        // Copy the archive entries from each archive file
+        for(Entry<File, List<String>> entry : archiveEntryNames.entrySet()) {
+            synchronized(getFileLock(entry.getKey())) {
+                try(ZipFile zipFile = new ZipFile(entry.getKey())) {
+                    for(String entryName : entry.getValue()) {
+                        ArchiveEntry archiveEntry = fArchiveTable.get(entryName);
+                        ZipEntry zipEntry = getZipEntry(zipFile, archiveEntry);
+                        
+                        putStoredEntry(zOut, entryName, archiveEntry.size(), archiveEntry.crc());
+                        try(InputStream in = zipFile.getInputStream(zipEntry)) {
+                            in.transferTo(zOut);
+                        }
+                        zOut.closeEntry();
+                    }
+                }
+            }
+        }
+    }
+    
+    private static void putStoredEntry(ZipOutputStream zOut, String entryName, long size, long crc) throws IOException {
+        ZipEntry zipEntry = new ZipEntry(entryName);
+        zipEntry.setMethod(ZipEntry.STORED);
+        zipEntry.setSize(size);
+        zipEntry.setCompressedSize(size);
+        zipEntry.setCrc(crc);
+        zOut.putNextEntry(zipEntry);
+    }
+    
+    private byte[] readArchiveEntry(ArchiveEntry archiveEntry) throws IOException {
+        synchronized(getFileLock(archiveEntry.file())) {
+            try(ZipFile zipFile = new ZipFile(archiveEntry.file())) {
+                try(InputStream in = zipFile.getInputStream(getZipEntry(zipFile, archiveEntry))) {
+                    return in.readAllBytes();
+                }
+            }
+        }
+    }
+    
+    /**
+     * @return The zip entry for the archive entry
+     * @throws IOException if the archive file has changed since the entry was added
+     */
+    private static ZipEntry getZipEntry(ZipFile zipFile, ArchiveEntry archiveEntry) throws IOException {
+        ZipEntry zipEntry = zipFile.getEntry(archiveEntry.name());
+        
+        if(zipEntry == null || zipEntry.getSize() != archiveEntry.size() || zipEntry.getCrc() != archiveEntry.crc()) {
+            throw new IOException("Archive entry has changed: " + archiveEntry.name()); //$NON-NLS-1$
+        }
+        
+        return zipEntry;
+    }
+    
+    private void cacheEntry(String entryName, byte[] bytes) {
+        // Too big to cache
+        if(bytes.length > MAX_CACHE_SIZE) {
+            return;
+        }
+        
+        removeCachedEntry(entryName);
+        fCache.put(entryName, bytes);
+        fCacheSize += bytes.length;
+        
+        // Remove the least recently used entries
+        for(Iterator<byte[]> iter = fCache.values().iterator(); fCacheSize > MAX_CACHE_SIZE && iter.hasNext();) {
+            fCacheSize -= iter.next().length;
+            iter.remove();
+        }
+    }
+    
+    private void removeCachedEntry(String entryName) {
+        byte[] bytes = fCache.remove(entryName);
+        if(bytes != null) {
+            fCacheSize -= bytes.length;
+        }
     }
     
     void addFileContentEntry(String entryName, File file) throws IOException {
@@ -91,9 +395,14 @@ public class ByteArrayStorage {
     }
 
     void addByteContentEntry(String entryName, byte[] bytes) {
+        // If we are replacing an entry remove it from the hash index
+        removeEntry(entryName);
+        
+        String hash = getHash(bytes);
+        
         // Check if we have these bytes already. If we do then re-reference them
         // We might be adding the same set of bytes but from a different file
-        String key = getKey(bytes);
+        String key = getKey(bytes, hash);
         
         // Yes we have them, so re-use the bytes
         if(key != null) {
@@ -103,6 +412,37 @@ public class ByteArrayStorage {
         else {
             fdataTable.put(entryName, bytes);
         }
+        
+        fHashTable.computeIfAbsent(hash, h -> new LinkedHashSet<>()).add(entryName);
+    }
+    
+    private void removeHash(String entryName, String hash) {
+        Set<String> entryNames = fHashTable.get(hash);
+        if(entryNames != null && entryNames.remove(entryName) && entryNames.isEmpty()) {
+            fHashTable.remove(hash);
+        }
+    }
+    
+    /**
+     * @return The CRC-32 of the bytes as used in zip entries
+     */
+    private static long getCrc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+    
+    /**
+     * @return The SHA-256 hash of the bytes as a hex string
+     */
+    private static String getHash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)); //$NON-NLS-1$
+        }
+        catch(NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
     }
     
     byte[] getBytesFromFile(File file) throws IOException {
@@ -117,6 +457,14 @@ public class ByteArrayStorage {
     void dispose() {
         fdataTable.clear();
         fdataTable = null;
+        fHashTable.clear();
+        fHashTable = null;
+        fArchiveTable.clear();
+        fArchiveTable = null;
+        fArchiveCrcTable.clear();
+        fArchiveCrcTable = null;
+        fCache.clear();
+        fCache = null;
     }
     
     /**
@@ -0,0 +1,960 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.model.impl;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.gef.commands.CommandStack;
+import org.eclipse.gef.commands.CommandStackEventListener;
+
+import com.archimatetool.editor.Logger;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IIdentifier;
+import com.archimatetool.model.util.ArchimateModelUtils;
+import com.archimatetool.model.util.IModelContentListener;
+
+/**
+ * Change Journal<p>
+ *
+ * Records the changes made to a model in an append-only journal file next to the model file so that unsaved changes
+ * can be recovered if Archi doesn't close normally.<p>
+ *
+ * Each model change notification is written as a compact change record when it occurs. Objects are identified by their
+ * identifier, or by their position in their container if they don't have one, and new objects are written with their contents.
+ * The changes made by each execute, undo or redo of a Command are appended to the file together, and the file is synced to disk
+ * in batches after a short delay. The journal starts with the size and time stamp of the model file that the changes apply to.
+ * When the model is saved the journal is compacted to the changes that are not in the saved file.
+ *
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+public class ChangeJournal {
+
+    /**
+     * Journal file name extension added to the model file name
+     */
+    public static final String JOURNAL_FILE_EXTENSION = ".journal";
+
+    private static final int MAGIC = 0x41524A4C;
+    private static final int VERSION = 1;
+
+    /**
+     * Delay in milliseconds before written changes are synced to disk
+     */
+    private static final long SYNC_DELAY = 2000;
+
+    // Value tags
+    private static final byte NULL_VALUE = 0;
+    private static final byte ATTRIBUTE_VALUE = 1;
+    private static final byte OBJECT_VALUE = 2;
+    private static final byte NEW_OBJECT_VALUE = 3;
+
+    // Object address tags
+    private static final byte NO_ADDRESS = 0;
+    private static final byte ID_ADDRESS = 1;
+    private static final byte PATH_ADDRESS = 2;
+
+    /**
+     * The size and time stamp of a model file
+     */
+    public record FileStamp(long size, long lastModified) {
+        public static FileStamp of(File file) {
+            return new FileStamp(file.length(), file.lastModified());
+        }
+    }
+
+    /**
+     * A record of the changes made by one execute, undo or redo of a Command
+     */
+    private record JournalRecord(long sequence, byte[] data) {
+    }
+
+    /**
+     * The contents of a journal file
+     * @param validLength The length of the file up to the end of the last complete record
+     */
+    private record JournalContents(FileStamp stamp, List<JournalRecord> records, long validLength) {
+    }
+
+    private final IArchimateModel fModel;
+    private final CommandStack fCommandStack;
+
+    private File fJournalFile;
+    private FileOutputStream fOut;
+    private long fSequence;
+
+    /**
+     * Changes that have not been written yet
+     */
+    private ByteArrayOutputStream fPendingBytes = new ByteArrayOutputStream();
+    private DataOutputStream fPending = new DataOutputStream(fPendingBytes);
+
+    /**
+     * Objects that have been removed in the pending changes
+     */
+    private Set<Object> fRemovedObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private IModelContentListener fModelListener = this::notifyChanged;
+
+    private CommandStackEventListener fCommandStackListener = event -> {
+        if(event.isPostChangeEvent()) {
+            writeRecord();
+        }
+    };
+
+    private Job fSyncJob = Job.createSystem("Sync change journal", monitor -> sync());
+
+    /**
+     * @return The journal file for a model file
+     */
+    public static File getJournalFile(File modelFile) {
+        return new File(modelFile.getPath() + JOURNAL_FILE_EXTENSION);
+    }
+
+    /**
+     * @return true if there is a journal file for the model file
+     */
+    public static boolean hasJournal(File modelFile) {
+        return modelFile != null && getJournalFile(modelFile).exists();
+    }
+
+    /**
+     * @return true if there is a journal for the model file that has changes to this version of the model file
+     */
+    public static boolean canRecover(File modelFile) {
+        if(!hasJournal(modelFile)) {
+            return false;
+        }
+
+        try {
+            JournalContents contents = read(getJournalFile(modelFile));
+            return contents.stamp().equals(FileStamp.of(modelFile)) && !contents.records().isEmpty();
+        }
+        catch(IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Apply the changes in the journal to a model that has been loaded from the model file.
+     * If an exception is thrown the model might be partly changed.
+     *
+     * @param model The model as loaded from the model file
+     * @param modelFile The model file
+     * @throws IOException If the journal can't be read or the changes can't be applied
+     */
+    public static void recover(IArchimateModel model, File modelFile) throws IOException {
+        Replayer replayer = new Replayer(model);
+
+        for(JournalRecord record : read(getJournalFile(modelFile)).records()) {
+            replayer.replay(record.data());
+        }
+    }
+
+    /**
+     * Delete the journal for a model file
+     */
+    public static void delete(File modelFile) {
+        if(modelFile != null) {
+            getJournalFile(modelFile).delete();
+        }
+    }
+
+    /**
+     * Start recording the changes to a model that has been saved to a file
+     *
+     * @param model The model
+     * @param commandStack The model's CommandStack
+     * @param append If true append to the existing journal for the model file, else start a new journal
+     * @return The journal
+     * @throws IOException
+     */
+    public static ChangeJournal start(IArchimateModel model, CommandStack commandStack, boolean append) throws IOException {
+        return new ChangeJournal(model, commandStack, append);
+    }
+
+    private ChangeJournal(IArchimateModel model, CommandStack commandStack, boolean append) throws IOException {
+        fModel = model;
+        fCommandStack = commandStack;
+        fJournalFile = getJournalFile(model.getFile());
+
+        if(append && fJournalFile.exists()) {
+            JournalContents contents = read(fJournalFile);
+
+            // Remove any incomplete record at the end
+            try(RandomAccessFile file = new RandomAccessFile(fJournalFile, "rw")) {
+                file.setLength(contents.validLength());
+            }
+
+            if(!contents.records().isEmpty()) {
+                fSequence = contents.records().get(contents.records().size() - 1).sequence();
+            }
+        }
+        else {
+            writeNewJournal(fJournalFile, FileStamp.of(model.getFile()), List.of());
+        }
+
+        fOut = new FileOutputStream(fJournalFile, true);
+
+        model.addModelContentListener(fModelListener);
+        commandStack.addCommandStackEventListener(fCommandStackListener);
+    }
+
+    /**
+     * @return The sequence number of the last change written to the journal
+     */
+    public synchronized long getSequence() {
+        writeRecord();
+        return fSequence;
+    }
+
+    /**
+     * Compact the journal after the model has been saved so that it only has the changes that are not in the saved file
+     *
+     * @param savedFile The file that the model was saved to. If this is a different file the journal is moved to the new file.
+     * @param stamp The stamp of the saved file
+     * @param sequence The sequence number of the last change in the saved file
+     */
+    public synchronized void compact(File savedFile, FileStamp stamp, long sequence) {
+        writeRecord();
+
+        if(fOut == null) {
+            return;
+        }
+
+        try {
+            List<JournalRecord> records = new ArrayList<>();
+            if(sequence < fSequence) {
+                for(JournalRecord record : read(fJournalFile).records()) {
+                    if(record.sequence() > sequence) {
+                        records.add(record);
+                    }
+                }
+            }
+
+            fOut.close();
+            fOut = null;
+
+            File journalFile = getJournalFile(savedFile);
+            if(!journalFile.equals(fJournalFile)) {
+                fJournalFile.delete();
+                fJournalFile = journalFile;
+            }
+
+            writeNewJournal(fJournalFile, stamp, records);
+
+            fOut = new FileOutputStream(fJournalFile, true);
+        }
+        catch(IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Stop recording changes
+     * @param delete If true delete the journal file
+     */
+    public synchronized void close(boolean delete) {
+        fModel.removeModelContentListener(fModelListener);
+        fCommandStack.removeCommandStackEventListener(fCommandStackListener);
+        closeFile(delete);
+    }
+
+    private synchronized void closeFile(boolean delete) {
+        fSyncJob.cancel();
+
+        if(!delete) {
+            writeRecord();
+        }
+
+        if(fOut != null) {
+            try {
+                if(!delete) {
+                    fOut.getFD().sync();
+                }
+                fOut.close();
+            }
+            catch(IOException ex) {
+                Logger.error("Error closing change journal", ex);
+            }
+            fOut = null;
+        }
+
+        if(delete) {
+            fJournalFile.delete();
+        }
+    }
+
+    // ========================================= Record changes =========================================
+
+    private void notifyChanged(Notification msg) {
+        if(fOut == null) {
+            return;
+        }
+
+        if(msg.getNotifier() instanceof EObject notifier && msg.getFeature() instanceof EStructuralFeature feature
+                                               && !feature.isTransient() && !feature.isDerived()) {
+            try {
+                writeChange(notifier, feature, msg);
+            }
+            catch(IOException | RuntimeException ex) {
+                fail(ex);
+                return;
+            }
+        }
+
+        // Changes not made by a Command are written now
+        if(!fModel.isInBatch()) {
+            writeRecord();
+        }
+    }
+
+    private void writeChange(EObject notifier, EStructuralFeature feature, Notification msg) throws IOException {
+        int eventType = msg.getEventType();
+
+        switch(eventType) {
+            case Notification.SET, Notification.UNSET, Notification.ADD, Notification.ADD_MANY,
+                 Notification.REMOVE, Notification.REMOVE_MANY, Notification.MOVE -> {}
+            default -> {
+                return;
+            }
+        }
+
+        writeAddress(notifier);
+        writeString(feature.getName());
+        fPending.writeByte(eventType);
+
+        switch(eventType) {
+            case Notification.SET, Notification.ADD -> {
+                fPending.writeInt(msg.getPosition());
+                writeValue(feature, msg.getNewValue());
+            }
+
+            case Notification.ADD_MANY -> {
+                Collection<?> values = (Collection<?>)msg.getNewValue();
+                fPending.writeInt(msg.getPosition());
+                fPending.writeInt(values.size());
+                for(Object value : values) {
+                    writeValue(feature, value);
+                }
+            }
+
+            case Notification.REMOVE -> {
+                fPending.writeInt(msg.getPosition());
+                fRemovedObjects.add(msg.getOldValue());
+            }
+
+            case Notification.REMOVE_MANY -> {
+                // Positions are null if the list was cleared
+                if(msg.getNewValue() instanceof int[] positions) {
+                    fPending.writeInt(positions.length);
+                    for(int position : positions) {
+                        fPending.writeInt(position);
+                    }
+                }
+                else {
+                    fPending.writeInt(-1);
+                }
+                fRemovedObjects.addAll((Collection<?>)msg.getOldValue());
+            }
+
+            case Notification.MOVE -> {
+                fPending.writeInt(msg.getPosition());
+                fPending.writeInt((Integer)msg.getOldValue());
+            }
+
+            default -> {}
+        }
+    }
+
+    private void writeValue(EStructuralFeature feature, Object value) throws IOException {
+        if(value == null) {
+            fPending.writeByte(NULL_VALUE);
+        }
+        else if(feature instanceof EAttribute attribute) {
+            fPending.writeByte(ATTRIBUTE_VALUE);
+            writeString(EcoreUtil.convertToString(attribute.getEAttributeType(), value));
+        }
+        // A new object, or an object that was removed from the model in an earlier change and is added again
+        else if(((EReference)feature).isContainment() && !isMovedObject(value)) {
+            fPending.writeByte(NEW_OBJECT_VALUE);
+            writeObject((EObject)value);
+        }
+        // A reference to an object in the model
+        else {
+            fPending.writeByte(OBJECT_VALUE);
+            writeAddress((EObject)value);
+        }
+    }
+
+    /**
+     * @return true if the object has an identifier and is being moved to a new container by the pending changes
+     */
+    private boolean isMovedObject(Object value) {
+        return fRemovedObjects.contains(value) && value instanceof IIdentifier identifier && identifier.getId() != null;
+    }
+
+    /**
+     * Write an object and its contents
+     */
+    private void writeObject(EObject eObject) throws IOException {
+        EClass eClass = eObject.eClass();
+        writeString(eClass.getEPackage().getNsURI());
+        writeString(eClass.getName());
+
+        for(EStructuralFeature feature : eClass.getEAllStructuralFeatures()) {
+            if(feature.isTransient() || feature.isDerived() || !eObject.eIsSet(feature)) {
+                continue;
+            }
+
+            writeString(feature.getName());
+
+            if(feature.isMany()) {
+                List<?> values = (List<?>)eObject.eGet(feature);
+                fPending.writeInt(values.size());
+                for(Object value : values) {
+                    writeValue(feature, value);
+                }
+            }
+            else {
+                writeValue(feature, eObject.eGet(feature));
+            }
+        }
+
+        // End of features
+        writeString(null);
+    }
+
+    /**
+     * Write the address of an object in the model. This is the object's identifier or, if it doesn't have one,
+     * the address of its container and its position in the container.
+     */
+    private void writeAddress(EObject eObject) throws IOException {
+        if(eObject instanceof IIdentifier identifier && identifier.getId() != null) {
+            fPending.writeByte(ID_ADDRESS);
+            writeString(identifier.getId());
+        }
+        else if(eObject.eContainer() != null) {
+            EStructuralFeature feature = eObject.eContainingFeature();
+            fPending.writeByte(PATH_ADDRESS);
+            writeAddress(eObject.eContainer());
+            writeString(feature.getName());
+            fPending.writeInt(feature.isMany() ? ((List<?>)eObject.eContainer().eGet(feature)).indexOf(eObject) : -1);
+        }
+        else {
+            fPending.writeByte(NO_ADDRESS);
+        }
+    }
+
+    private void writeString(String s) throws IOException {
+        if(s == null) {
+            fPending.writeInt(-1);
+        }
+        else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            fPending.writeInt(bytes.length);
+            fPending.write(bytes);
+        }
+    }
+
+    /**
+     * Append the pending changes to the journal file as one record
+     */
+    private synchronized void writeRecord() {
+        fRemovedObjects.clear();
+
+        if(fOut == null || fPendingBytes.size() == 0) {
+            return;
+        }
+
+        try {
+            writeRecord(fOut, new JournalRecord(++fSequence, fPendingBytes.toByteArray()));
+            fPendingBytes.reset();
+
+            // Sync the file after a delay so that several records are synced together
+            if(fSyncJob.getState() == Job.NONE) {
+                fSyncJob.schedule(SYNC_DELAY);
+            }
+        }
+        catch(IOException ex) {
+            fail(ex);
+        }
+    }
+
+    private synchronized void sync() {
+        if(fOut != null) {
+            try {
+                fOut.getFD().sync();
+            }
+            catch(IOException ex) {
+                Logger.error("Error syncing change journal", ex);
+            }
+        }
+    }
+
+    /**
+     * Stop recording changes when the journal can't be written. The journal file is deleted as it is incomplete.
+     */
+    private void fail(Exception ex) {
+        Logger.error("Error writing change journal", ex);
+        ex.printStackTrace();
+        fPendingBytes.reset();
+        closeFile(true);
+    }
+
+    // ========================================= Journal file =========================================
+
+    /**
+     * Write a new journal file with the given records, replacing any existing file
+     */
+    private static void writeNewJournal(File journalFile, FileStamp stamp, List<JournalRecord> records) throws IOException {
+        File tmpFile = new File(journalFile.getPath() + ".tmp");
+
+        try {
+            try(FileOutputStream out = new FileOutputStream(tmpFile)) {
+                ByteBuffer header = ByteBuffer.allocate(24);
+                header.putInt(MAGIC).putInt(VERSION).putLong(stamp.size()).putLong(stamp.lastModified());
+                out.write(header.array());
+
+                for(JournalRecord record : records) {
+                    writeRecord(out, record);
+                }
+
+                out.getFD().sync();
+            }
+
+            try {
+                Files.move(tmpFile.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch(AtomicMoveNotSupportedException ex) {
+                Files.move(tmpFile.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally {
+            tmpFile.delete();
+        }
+    }
+
+    /**
+     * Write a record as its length, the CRC of its contents, its sequence number and its data
+     */
+    private static void writeRecord(OutputStream out, JournalRecord record) throws IOException {
+        int length = 8 + record.data().length;
+
+        ByteBuffer buffer = ByteBuffer.allocate(12 + length);
+        buffer.putInt(length).putLong(0).putLong(record.sequence()).put(record.data());
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 12, length);
+        buffer.putLong(4, crc.getValue());
+
+        // Write the record in one call so that it is appended in one piece
+        out.write(buffer.array());
+    }
+
+    /**
+     * Read a journal file. Reading stops at the first incomplete or damaged record.
+     */
+    private static JournalContents read(File journalFile) throws IOException {
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+            if(in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a change journal: " + journalFile);
+            }
+
+            FileStamp stamp = new FileStamp(in.readLong(), in.readLong());
+            List<JournalRecord> records = new ArrayList<>();
+            long validLength = 24;
+
+            for(;;) {
+                byte[] bytes;
+                long crc;
+
+                try {
+                    int length = in.readInt();
+                    if(length < 8) {
+                        break;
+                    }
+                    crc = in.readLong();
+                    bytes = in.readNBytes(length);
+                    if(bytes.length < length) {
+                        break;
+                    }
+                }
+                catch(EOFException ex) {
+                    break;
+                }
+
+                CRC32 check = new CRC32();
+                check.update(bytes);
+                if(check.getValue() != crc) {
+                    break;
+                }
+
+                records.add(new JournalRecord(ByteBuffer.wrap(bytes).getLong(), Arrays.copyOfRange(bytes, 8, bytes.length)));
+                validLength += 12 + bytes.length;
+            }
+
+            return new JournalContents(stamp, records, validLength);
+        }
+    }
+
+    // ========================================= Replay changes =========================================
+
+    /**
+     * Applies the changes in journal records to a model
+     */
+    private static class Replayer {
+
+        /**
+         * A reference to an object that is not in the model yet
+         */
+        private record Unresolved(String id) {
+        }
+
+        /**
+         * A new object read from the journal
+         */
+        private record NewObject(EObject eObject) {
+        }
+
+        private interface Deferred {
+            void run() throws IOException;
+        }
+
+        /**
+         * Objects by identifier. This includes objects that have been removed from the model so that they can be added again.
+         */
+        private Map<String, EObject> objects;
+
+        /**
+         * References to set at the end of the record when the objects they refer to have been added
+         */
+        private List<Deferred> deferred = new ArrayList<>();
+
+        private DataInputStream in;
+
+        Replayer(IArchimateModel model) {
+            objects = ArchimateModelUtils.getObjectIDMap(model);
+        }
+
+        void replay(byte[] data) throws IOException {
+            in = new DataInputStream(new ByteArrayInputStream(data));
+
+            try {
+                while(in.available() > 0) {
+                    replayChange();
+                }
+
+                for(Deferred d : deferred) {
+                    d.run();
+                }
+            }
+            catch(RuntimeException ex) {
+                throw new IOException("Could not apply change", ex);
+            }
+            finally {
+                deferred.clear();
+            }
+        }
+
+        private void replayChange() throws IOException {
+            if(!(readAddress() instanceof EObject target)) {
+                throw new IOException("Changed object not found");
+            }
+
+            EStructuralFeature feature = getFeature(target.eClass(), readString());
+            int eventType = in.readByte();
+
+            switch(eventType) {
+                case Notification.SET -> {
+                    int position = in.readInt();
+                    Object value = readChangeValue(feature);
+
+                    if(feature.isMany()) {
+                        EList<Object> list = getList(target, feature);
+                        checkIndex(position, list.size());
+                        if(value instanceof Unresolved unresolved) {
+                            deferred.add(() -> list.set(position, resolve(unresolved)));
+                        }
+                        else {
+                            list.set(position, value);
+                        }
+                    }
+                    else if(value instanceof Unresolved unresolved) {
+                        target.eSet(feature, null);
+                        deferred.add(() -> {
+                            if(target.eGet(feature) == null) {
+                                target.eSet(feature, resolve(unresolved));
+                            }
+                        });
+                    }
+                    else {
+                        target.eSet(feature, value);
+                    }
+                }
+
+                case Notification.UNSET -> target.eUnset(feature);
+
+                case Notification.ADD -> {
+                    int position = in.readInt();
+                    add(getList(target, feature), position, readChangeValue(feature));
+                }
+
+                case Notification.ADD_MANY -> {
+                    EList<Object> list = getList(target, feature);
+                    int position = in.readInt();
+                    int size = in.readInt();
+                    for(int i = 0; i < size; i++) {
+                        add(list, position + i, readChangeValue(feature));
+                    }
+                }
+
+                case Notification.REMOVE -> {
+                    EList<Object> list = getList(target, feature);
+                    int position = in.readInt();
+                    checkIndex(position, list.size());
+                    list.remove(position);
+                }
+
+                case Notification.REMOVE_MANY -> {
+                    EList<Object> list = getList(target, feature);
+                    int count = in.readInt();
+
+                    if(count == -1) {
+                        list.clear();
+                    }
+                    else {
+                        int[] positions = new int[count];
+                        for(int i = 0; i < count; i++) {
+                            positions[i] = in.readInt();
+                        }
+                        // Positions are in ascending order so remove from the end
+                        for(int i = count - 1; i >= 0; i--) {
+                            checkIndex(positions[i], list.size());
+                            list.remove(positions[i]);
+                        }
+                    }
+                }
+
+                case Notification.MOVE -> {
+                    EList<Object> list = getList(target, feature);
+                    int newPosition = in.readInt();
+                    int oldPosition = in.readInt();
+                    checkIndex(newPosition, list.size());
+                    checkIndex(oldPosition, list.size());
+                    list.move(newPosition, oldPosition);
+                }
+
+                default -> throw new IOException("Unknown change type: " + eventType);
+            }
+        }
+
+        private void add(EList<Object> list, int position, Object value) throws IOException {
+            if(value instanceof Unresolved unresolved) {
+                deferred.add(() -> list.add(Math.min(position, list.size()), resolve(unresolved)));
+            }
+            else {
+                checkIndex(position, list.size() + 1);
+                list.add(position, value);
+            }
+        }
+
+        /**
+         * Read the value of a change. If a new object has the identifier of an object that is already known,
+         * such as an object that is added again after it was removed, the known object is used.
+         */
+        private Object readChangeValue(EStructuralFeature feature) throws IOException {
+            int mark = deferred.size();
+            Object value = readValue(feature);
+
+            if(value instanceof NewObject newObject) {
+                EObject eObject = newObject.eObject();
+
+                if(eObject instanceof IIdentifier identifier && objects.get(identifier.getId()) instanceof EObject known) {
+                    // Discard references to be set in the new object
+                    deferred.subList(mark, deferred.size()).clear();
+                    return known;
+                }
+
+                addObject(eObject);
+                for(Iterator<EObject> iter = eObject.eAllContents(); iter.hasNext();) {
+                    addObject(iter.next());
+                }
+
+                return eObject;
+            }
+
+            return value;
+        }
+
+        private void addObject(EObject eObject) {
+            if(eObject instanceof IIdentifier identifier && identifier.getId() != null) {
+                objects.put(identifier.getId(), eObject);
+            }
+        }
+
+        private Object readValue(EStructuralFeature feature) throws IOException {
+            byte tag = in.readByte();
+
+            return switch(tag) {
+                case NULL_VALUE -> null;
+                case ATTRIBUTE_VALUE -> EcoreUtil.createFromString(((EAttribute)feature).getEAttributeType(), readString());
+                case OBJECT_VALUE -> readAddress();
+                case NEW_OBJECT_VALUE -> new NewObject(readObject());
+                default -> throw new IOException("Unknown value type: " + tag);
+            };
+        }
+
+        private EObject readObject() throws IOException {
+            EObject eObject = EcoreUtil.create(getEClass(readString(), readString()));
+
+            for(String featureName; (featureName = readString()) != null;) {
+                EStructuralFeature feature = getFeature(eObject.eClass(), featureName);
+
+                if(feature.isMany()) {
+                    EList<Object> list = getList(eObject, feature);
+                    int size = in.readInt();
+                    for(int i = 0; i < size; i++) {
+                        Object value = readValue(feature);
+                        if(value instanceof Unresolved unresolved) {
+                            int position = i;
+                            deferred.add(() -> list.add(Math.min(position, list.size()), resolve(unresolved)));
+                        }
+                        else {
+                            list.add(value instanceof NewObject newObject ? newObject.eObject() : value);
+                        }
+                    }
+                }
+                else {
+                    Object value = readValue(feature);
+                    if(value instanceof Unresolved unresolved) {
+                        deferred.add(() -> eObject.eSet(feature, resolve(unresolved)));
+                    }
+                    else {
+                        eObject.eSet(feature, value instanceof NewObject newObject ? newObject.eObject() : value);
+                    }
+                }
+            }
+
+            return eObject;
+        }
+
+        /**
+         * @return The object at the address, Unresolved if it is an identifier that is not known yet, or null
+         */
+        private Object readAddress() throws IOException {
+            byte tag = in.readByte();
+
+            switch(tag) {
+                case ID_ADDRESS -> {
+                    String id = readString();
+                    EObject eObject = objects.get(id);
+                    return eObject != null ? eObject : new Unresolved(id);
+                }
+
+                case PATH_ADDRESS -> {
+                    Object container = readAddress();
+                    String featureName = readString();
+                    int index = in.readInt();
+
+                    if(!(container instanceof EObject eContainer)) {
+                        return null;
+                    }
+
+                    EStructuralFeature feature = getFeature(eContainer.eClass(), featureName);
+                    if(feature.isMany()) {
+                        List<?> list = (List<?>)eContainer.eGet(feature);
+                        return index >= 0 && index < list.size() ? list.get(index) : null;
+                    }
+                    return eContainer.eGet(feature);
+                }
+
+                default -> {
+                    return null;
+                }
+            }
+        }
+
+        private EObject resolve(Unresolved unresolved) throws IOException {
+            EObject eObject = objects.get(unresolved.id());
+            if(eObject == null) {
+                throw new IOException("Referenced object not found: " + unresolved.id());
+            }
+            return eObject;
+        }
+
+        private String readString() throws IOException {
+            int length = in.readInt();
+            return length == -1 ? null : new String(in.readNBytes(length), StandardCharsets.UTF_8);
+        }
+
+        @SuppressWarnings("unchecked")
+        private EList<Object> getList(EObject eObject, EStructuralFeature feature) throws IOException {
+            if(!feature.isMany()) {
+                throw new IOException("Not a list feature: " + feature.getName());
+            }
+            return (EList<Object>)eObject.eGet(feature);
+        }
+
+        private EStructuralFeature getFeature(EClass eClass, String name) throws IOException {
+            EStructuralFeature feature = eClass.getEStructuralFeature(name);
+            if(feature == null) {
+                throw new IOException("Unknown feature: " + eClass.getName() + "." + name);
+            }
+            return feature;
+        }
+
+        private EClass getEClass(String nsURI, String name) throws IOException {
+            EPackage ePackage = EPackage.Registry.INSTANCE.getEPackage(nsURI);
+            if(ePackage != null && ePackage.getEClassifier(name) instanceof EClass eClass) {
+                return eClass;
+            }
+            throw new IOException("Unknown class: " + nsURI + " " + name);
+        }
+
+        private void checkIndex(int index, int size) throws IOException {
+            if(index < 0 || index >= size) {
+                throw new IOException("Position " + index + " is out of range");
+            }
+        }
+    }
+}
@@ -11,16 +11,35 @@ import java.beans.PropertyChangeSupport;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.Resource.Diagnostic;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.gef.commands.Command;
 import org.eclipse.gef.commands.CommandStack;
 import org.eclipse.jface.dialogs.IDialogConstants;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.BusyIndicator;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.Shell;
@@ -37,6 +56,7 @@ import com.archimatetool.editor.diagram.util.AnimationUtil;
 import com.archimatetool.editor.model.IArchiveManager;
 import com.archimatetool.editor.model.IEditorModelManager;
 import com.archimatetool.editor.model.ModelChecker;
+import com.archimatetool.editor.model.ModelDiagnostics;
 import com.archimatetool.editor.model.compatibility.CompatibilityHandlerException;
 import com.archimatetool.editor.model.compatibility.IncompatibleModelException;
 import com.archimatetool.editor.model.compatibility.ModelCompatibility;
@@ -50,7 +70,10 @@ import com.archimatetool.model.IArchimateFactory;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.ModelVersion;
-import com.archimatetool.model.util.IModelContentListener;
+import com.archimatetool.model.util.ArchimateResource;
+import com.archimatetool.model.util.IModelContentBatchListener;
+import com.archimatetool.model.util.PhaseTimings;
+import com.archimatetool.model.util.StringPool;
 
 
 
@@ -76,7 +99,7 @@ implements IEditorModelManager {
     /**
      * Listener
      */
-    private IModelContentListener fEContentListener = this::notifyChanged;
+    private IModelContentBatchListener fEContentListener = this::notifyBatchChanged;
     
     /**
      * Models Open
@@ -94,10 +117,19 @@ implements IEditorModelManager {
     private IWorkbenchListener workBenchListener = new IWorkbenchListener() {
         @Override
         public void postShutdown(IWorkbench workbench) {
+            // Models have been saved or the user chose not to save them so the change journals are not needed
+            if(fModels != null) {
+                for(IArchimateModel model : fModels) {
+                    closeChangeJournal(model);
+                }
+            }
         }
 
         @Override
         public boolean preShutdown(IWorkbench  workbench, boolean forced) {
+            // Let background saves finish writing their files
+            waitForBackgroundSaves();
+            
             // Handle modified models
             if(fModels != null) { // Dont call getModels() - we don't want to call loadState();
                 for(IArchimateModel model : fModels) {
@@ -249,6 +281,27 @@ implements IEditorModelManager {
             return model;
         }
         
+        return loadModel(parseModel(file));
+    }
+    
+    /**
+     * A model file that has been parsed but not yet registered
+     * @param exception The exception thrown loading the Resource, or null
+     * @param compatibilityFixed true if compatibility issues have already been fixed
+     * @param timings The time taken by each phase of loading the model so far
+     */
+    private record ParsedModel(File file, Resource resource, ModelCompatibility modelCompatibility, IOException exception, boolean compatibilityFixed,
+                               PhaseTimings timings) {
+    }
+    
+    /**
+     * Load the model file and, if the user won't need to be asked anything first, fix compatibility issues.
+     * This does not use the UI so can be run on any thread.
+     */
+    private ParsedModel parseModel(File file) {
+        PhaseTimings timings = new PhaseTimings("Load " + file); //$NON-NLS-1$
+        long startTime = PhaseTimings.now();
+        
         // Create the Resource
         Resource resource = IArchiveManager.FACTORY.createResource(file);
 
@@ -257,9 +310,45 @@ implements IEditorModelManager {
         
         // Load the model file
         try {
-            resource.load(null);
+            resource.load(Map.of(ArchimateResource.OPTION_PHASE_TIMINGS, timings));
         }
         catch(IOException ex) {
+            return new ParsedModel(file, resource, modelCompatibility, ex, false, timings);
+        }
+        
+        // The binary format doesn't record its own phases
+        if(timings.isEmpty()) {
+            timings.add("load", startTime, file.length()); //$NON-NLS-1$
+        }
+        
+        // Fix any backward compatibility issues now unless the user will be asked whether to open the model
+        if(modelCompatibility.isLaterModelVersion(ModelVersion.VERSION) || !modelCompatibility.getAcceptableExceptions().isEmpty()) {
+            return new ParsedModel(file, resource, modelCompatibility, null, false, timings);
+        }
+        
+        startTime = PhaseTimings.now();
+        try {
+            modelCompatibility.fixCompatibility();
+        }
+        catch(CompatibilityHandlerException ex) {
+        }
+        timings.add("fixCompatibility", startTime); //$NON-NLS-1$
+        
+        return new ParsedModel(file, resource, modelCompatibility, null, true, timings);
+    }
+    
+    /**
+     * Check a parsed model and register it. This must be called on the UI thread.
+     */
+    private IArchimateModel loadModel(ParsedModel parsedModel) {
+        File file = parsedModel.file();
+        Resource resource = parsedModel.resource();
+        ModelCompatibility modelCompatibility = parsedModel.modelCompatibility();
+        PhaseTimings timings = parsedModel.timings();
+        
+        if(parsedModel.exception() != null) {
+            IOException ex = parsedModel.exception();
+            
             // No Resource errors so must be file access exception
             if(resource.getErrors().isEmpty() && PlatformUI.isWorkbenchRunning()) {
                 MessageDialog.openError(Display.getCurrent().getActiveShell(),
@@ -286,7 +375,7 @@ implements IEditorModelManager {
             }
         }
         
-        model = (IArchimateModel)resource.getContents().get(0);
+        IArchimateModel model = (IArchimateModel)resource.getContents().get(0);
 
         // Once loaded - check for later model version
         if(PlatformUI.isWorkbenchRunning()) {
@@ -320,32 +409,89 @@ implements IEditorModelManager {
         }
 
         // And then fix any backward compatibility issues
-        try {
-            modelCompatibility.fixCompatibility();
-        }
-        catch(CompatibilityHandlerException ex) {
+        if(!parsedModel.compatibilityFixed()) {
+            long startTime = PhaseTimings.now();
+            try {
+                modelCompatibility.fixCompatibility();
+            }
+            catch(CompatibilityHandlerException ex) {
+            }
+            timings.add("fixCompatibility", startTime); //$NON-NLS-1$
         }
 
         // Set file
         model.setFile(file);
         
         // Check defaults
+        long startTime = PhaseTimings.now();
         model.setDefaults();
+        timings.add("setDefaults", startTime); //$NON-NLS-1$
+        
+        // Recover unsaved changes if the model was not closed normally
+        boolean recovered = false;
+        if(PlatformUI.isWorkbenchRunning() && ChangeJournal.hasJournal(file)) {
+            if(ChangeJournal.canRecover(file) && MessageDialog.openQuestion(Display.getCurrent().getActiveShell(),
+                    Messages.EditorModelManager_16,
+                    NLS.bind(Messages.EditorModelManager_17, file))) {
+                try {
+                    startTime = PhaseTimings.now();
+                    ChangeJournal.recover(model, file);
+                    timings.add("recoverChanges", startTime, ChangeJournal.getJournalFile(file).length()); //$NON-NLS-1$
+                    recovered = true;
+                }
+                catch(IOException ex) {
+                    Logger.error("Could not recover changes", ex); //$NON-NLS-1$
+                    ex.printStackTrace();
+                    ChangeJournal.delete(file);
+                    MessageDialog.openError(Display.getCurrent().getActiveShell(),
+                            Messages.EditorModelManager_16,
+                            NLS.bind(Messages.EditorModelManager_19, file) + "\n" + ex.getMessage()); //$NON-NLS-1$
+                    
+                    // The model might have been partly changed so load it again
+                    return loadModel(parseModel(file));
+                }
+            }
+            else {
+                ChangeJournal.delete(file);
+            }
+        }
         
         // Add to list of open models
         getModels().add(model);
         
         // Register Ecore listener
+        startTime = PhaseTimings.now();
         model.addModelContentListener(fEContentListener);
         
         // New Command Stack
         createNewCommandStack(model);
+        timings.add("addListeners", startTime); //$NON-NLS-1$
         
         // New Archive Manager
+        startTime = PhaseTimings.now();
         createNewArchiveManager(model);
+        timings.add("loadImages", startTime); //$NON-NLS-1$
         
         // Initiate all diagram models to be marked as "saved" - this is for the editor view persistence
+        startTime = PhaseTimings.now();
         markDiagramModelsAsSaved(model);
+        timings.add("markDiagramModelsAsSaved", startTime); //$NON-NLS-1$
+        
+        // Record changes, continuing the journal of recovered changes
+        startTime = PhaseTimings.now();
+        startChangeJournal(model, recovered);
+        timings.add("startChangeJournal", startTime); //$NON-NLS-1$
+        
+        // Recovered changes have not been saved so mark the model as modified
+        if(recovered) {
+            markModelModified(model);
+        }
+        
+        // Heap saved by de-duplicating strings. These are totals for all loads as models can be parsed at the same time.
+        timings.setCount("stringPoolDuplicates", StringPool.INSTANCE.getHitCount()); //$NON-NLS-1$
+        timings.setCount("stringPoolSavedBytes", StringPool.INSTANCE.getSavedBytes()); //$NON-NLS-1$
+        
+        ModelDiagnostics.add(timings);
 
         // This last
         firePropertyChange(this, PROPERTY_MODEL_LOADED, null, model);
@@ -399,7 +545,9 @@ implements IEditorModelManager {
         model.setDefaults();
         
         // New Command Stack
-        model.setAdapter(CommandStack.class, new CommandStack());
+        CommandStack cmdStack = new CommandStack();
+        addBatchListener(model, cmdStack);
+        model.setAdapter(CommandStack.class, cmdStack);
         
         // New Archive Manager and load images
         IArchiveManager archiveManager = IArchiveManager.FACTORY.createArchiveManager(model);
@@ -420,6 +568,9 @@ implements IEditorModelManager {
             return true;
         }
         
+        // Let background saves finish and set their save points before checking if the model is dirty
+        waitForBackgroundSaves();
+        
         // Check if model needs saving
         if(PlatformUI.isWorkbenchRunning() && isModelDirty(model) && askSaveModel) {
             boolean result = askSaveModel(model);
@@ -442,6 +593,9 @@ implements IEditorModelManager {
   
         // Delete Archive Manager
         deleteArchiveManager(model);
+        
+        // Delete the change journal
+        closeChangeJournal(model);
 
         // *at the very last* dispose of this model so its contents can be garbage collected
         // Some Eclipse components such as the Properties View might still reference the model or some of its contents
@@ -485,37 +639,35 @@ implements IEditorModelManager {
 
     @Override
     public boolean saveModel(IArchimateModel model) throws IOException {
-        // Check integrity
-        ModelChecker checker = new ModelChecker(model);
-        if(!checker.checkAll()) {
-            if(PlatformUI.isWorkbenchRunning()) {
-                checker.showErrorDialog(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell());
-            }
+        if(!prepareSaveModel(model)) {
             return false;
         }
         
-        // First time to save...
-        if(model.getFile() == null) {
-            File file = askSaveModel();
-            if(file == null) { // cancelled
-                return false;
-            }
-            model.setFile(file);
-        }
+        // Don't write the file while a background save is writing it
+        waitForBackgroundSaves();
         
-        File file = model.getFile();
+        PhaseTimings timings = new PhaseTimings("Save " + model.getFile()); //$NON-NLS-1$
         
         // Save backup (if set in Preferences)
-        if(ArchiPlugin.getInstance().getPreferenceStore().getBoolean(IPreferenceConstants.BACKUP_ON_SAVE) && file.exists()) {
-            FileUtils.copyFile(file, new File(model.getFile().getAbsolutePath() + ".bak"), false); //$NON-NLS-1$
-        }
-        
-        // Set model version
-        model.setVersion(ModelVersion.VERSION);
+        long startTime = PhaseTimings.now();
+        backupModelFile(model.getFile());
+        timings.add("backup", startTime); //$NON-NLS-1$
         
         // Use Archive Manager to save contents
         IArchiveManager archiveManager = (IArchiveManager)model.getAdapter(IArchiveManager.class);
-        archiveManager.saveModel();
+        archiveManager.saveModel(timings);
+        
+        // The saved file has all of the changes so compact the change journal, or start one if the model has not been saved before
+        startTime = PhaseTimings.now();
+        if(model.getAdapter(ChangeJournal.class) instanceof ChangeJournal journal) {
+            journal.compact(model.getFile(), ChangeJournal.FileStamp.of(model.getFile()), journal.getSequence());
+        }
+        else {
+            startChangeJournal(model, false);
+        }
+        timings.add("compactJournal", startTime); //$NON-NLS-1$
+        
+        ModelDiagnostics.add(timings);
         
         // Set CommandStack Save point
         CommandStack stack = (CommandStack)model.getAdapter(CommandStack.class);
@@ -533,6 +685,215 @@ implements IEditorModelManager {
         return true;
     }
     
+    @Override
+    public boolean saveModelInBackground(IArchimateModel model) throws IOException {
+        if(!prepareSaveModel(model)) {
+            return false;
+        }
+        
+        File file = model.getFile();
+        
+        PhaseTimings timings = new PhaseTimings("Save in background " + file); //$NON-NLS-1$
+        
+        // Take a snapshot of the model and its images to save so that the model can be edited while it is saved
+        long startTime = PhaseTimings.now();
+        IArchimateModel snapshot = EcoreUtil.copy(model);
+        snapshot.setFile(file);
+        IArchiveManager archiveManager = ((IArchiveManager)model.getAdapter(IArchiveManager.class)).clone(snapshot);
+        timings.add("snapshot", startTime); //$NON-NLS-1$
+        
+        // The last Command executed when the snapshot was taken
+        CommandStack stack = (CommandStack)model.getAdapter(CommandStack.class);
+        Command lastCommand = stack != null ? stack.getUndoCommand() : null;
+        
+        // The last change recorded in the change journal when the snapshot was taken
+        ChangeJournal journal = (ChangeJournal)model.getAdapter(ChangeJournal.class);
+        long journalSequence = journal != null ? journal.getSequence() : 0;
+        
+        Job job = new Job(NLS.bind(Messages.EditorModelManager_12, model.getName())) {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                monitor.beginTask(getName(), IProgressMonitor.UNKNOWN);
+                
+                try {
+                    long startTime = PhaseTimings.now();
+                    backupModelFile(file);
+                    timings.add("backup", startTime); //$NON-NLS-1$
+                    
+                    archiveManager.saveModel(timings);
+                    ModelDiagnostics.add(timings);
+                    
+                    ChangeJournal.FileStamp stamp = ChangeJournal.FileStamp.of(file);
+                    
+                    // Queue the completion before the job finishes so that waitForBackgroundSaves() can apply it
+                    completedSaves.add(() -> backgroundSaveCompleted(model, snapshot, lastCommand, stamp, journalSequence));
+                    
+                    if(Display.getDefault() != null) {
+                        Display.getDefault().asyncExec(EditorModelManager.this::applyCompletedSaves);
+                    }
+                }
+                catch(IOException ex) {
+                    ex.printStackTrace();
+                    // The Jobs framework logs the error and reports it to the user
+                    return new Status(IStatus.ERROR, ArchiPlugin.PLUGIN_ID, NLS.bind(Messages.EditorModelManager_15, file), ex);
+                }
+                finally {
+                    archiveManager.dispose();
+                    monitor.done();
+                }
+                
+                return Status.OK_STATUS;
+            }
+            
+            @Override
+            public boolean belongsTo(Object family) {
+                return family == SAVE_JOB_FAMILY;
+            }
+        };
+        
+        job.setRule(new SaveRule(file));
+        job.schedule();
+        
+        return true;
+    }
+    
+    /**
+     * Job family of background saves
+     */
+    private static final Object SAVE_JOB_FAMILY = new Object();
+    
+    /**
+     * Background saves that have finished writing their files but whose models have not yet been updated on the UI thread
+     */
+    private final Queue<Runnable> completedSaves = new ConcurrentLinkedQueue<>();
+    
+    /**
+     * Update the models of finished background saves in the order that they finished. This must be called on the UI thread.
+     */
+    private void applyCompletedSaves() {
+        Runnable runnable;
+        while((runnable = completedSaves.poll()) != null) {
+            runnable.run();
+        }
+    }
+    
+    /**
+     * Background saves of the same file run one at a time
+     */
+    private record SaveRule(File file) implements ISchedulingRule {
+        @Override
+        public boolean contains(ISchedulingRule rule) {
+            return rule == this;
+        }
+
+        @Override
+        public boolean isConflicting(ISchedulingRule rule) {
+            return rule instanceof SaveRule other && other.file.equals(file);
+        }
+    }
+    
+    /**
+     * Update the model's saved state on the UI thread when a background save has finished
+     * @param stamp The stamp of the saved file
+     * @param journalSequence The last change recorded in the change journal when the snapshot was taken
+     */
+    private void backgroundSaveCompleted(IArchimateModel model, IArchimateModel snapshot, Command lastCommand,
+                                         ChangeJournal.FileStamp stamp, long journalSequence) {
+        // Closed while saving
+        if(fModels == null || !fModels.contains(model)) {
+            return;
+        }
+        
+        File file = snapshot.getFile();
+        
+        // Set CommandStack Save point if the model has not been changed since the snapshot
+        CommandStack stack = (CommandStack)model.getAdapter(CommandStack.class);
+        boolean unchanged = stack != null && stack.getUndoCommand() == lastCommand;
+        if(unchanged) {
+            stack.markSaveLocation();
+            // Send notification to Tree
+            firePropertyChange(model, COMMAND_STACK_CHANGED, true, false);
+        }
+        
+        // Compact the change journal to the changes made since the snapshot unless the file has been saved again since,
+        // or start one if the model has not been saved before and has not been changed since the snapshot
+        if(file.equals(model.getFile()) && stamp.equals(ChangeJournal.FileStamp.of(file))) {
+            if(model.getAdapter(ChangeJournal.class) instanceof ChangeJournal journal) {
+                journal.compact(file, stamp, journalSequence);
+            }
+            else if(unchanged) {
+                startChangeJournal(model, false);
+            }
+        }
+        
+        // Mark the diagram models that were saved as "saved" - this is for the editor view persistence
+        Set<String> savedIDs = new HashSet<>();
+        for(IDiagramModel dm : snapshot.getDiagramModels()) {
+            savedIDs.add(dm.getId());
+        }
+        for(IDiagramModel dm : model.getDiagramModels()) {
+            if(savedIDs.contains(dm.getId())) {
+                dm.setAdapter(ADAPTER_PROPERTY_MODEL_SAVED, true);
+            }
+        }
+        
+        firePropertyChange(this, PROPERTY_MODEL_SAVED, null, model);
+    }
+    
+    /**
+     * Check the model and ask for a file name if it has not been saved before
+     * @return false if the model can't be saved or the user cancelled
+     */
+    private boolean prepareSaveModel(IArchimateModel model) {
+        // Check integrity of the objects that have changed since the last check
+        ModelChecker checker = new ModelChecker(model);
+        if(!checker.checkChanges()) {
+            if(PlatformUI.isWorkbenchRunning()) {
+                checker.showErrorDialog(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell());
+            }
+            return false;
+        }
+        
+        // First time to save...
+        if(model.getFile() == null) {
+            File file = askSaveModel();
+            if(file == null) { // cancelled
+                return false;
+            }
+            model.setFile(file);
+        }
+        
+        // Set model version
+        model.setVersion(ModelVersion.VERSION);
+        
+        return true;
+    }
+    
+    /**
+     * Save backup (if set in Preferences)
+     */
+    private void backupModelFile(File file) throws IOException {
+        if(ArchiPlugin.getInstance().getPreferenceStore().getBoolean(IPreferenceConstants.BACKUP_ON_SAVE) && file.exists()) {
+            FileUtils.copyFile(file, new File(file.getAbsolutePath() + ".bak"), false); //$NON-NLS-1$
+        }
+    }
+    
+    /**
+     * Wait for any background saves to finish and update their models' saved state.
+     * This must be called on the UI thread.
+     */
+    private void waitForBackgroundSaves() {
+        try {
+            Job.getJobManager().join(SAVE_JOB_FAMILY, null);
+        }
+        catch(InterruptedException | OperationCanceledException ex) {
+            ex.printStackTrace();
+        }
+        
+        // Don't wait for the event loop to set the save points, the caller checks whether models are dirty
+        applyCompletedSaves();
+    }
+    
     @Override
     public boolean saveModelAs(IArchimateModel model) throws IOException {
         if(model == null) {
@@ -629,6 +990,9 @@ implements IEditorModelManager {
     private void createNewCommandStack(final IArchimateModel model) {
         CommandStack cmdStack = new CommandStack();
         
+        // Add this first so that batch listeners are notified before other CommandStack listeners
+        addBatchListener(model, cmdStack);
+        
         if(PlatformUI.isWorkbenchRunning()) {
             // Forward on CommandStack Event to Tree
             cmdStack.addCommandStackEventListener(event -> {
@@ -645,6 +1009,21 @@ implements IEditorModelManager {
         model.setAdapter(CommandStack.class, cmdStack);
     }
     
+    /**
+     * Make each execute, undo and redo of a Command on the CommandStack a batch of model changes
+     * so that batch listeners receive the changes made by the Command together
+     */
+    private static void addBatchListener(IArchimateModel model, CommandStack cmdStack) {
+        cmdStack.addCommandStackEventListener(event -> {
+            if(event.isPreChangeEvent()) {
+                model.beginBatch();
+            }
+            else if(event.isPostChangeEvent()) {
+                model.endBatch();
+            }
+        });
+    }
+    
     /**
      * Remove a CommandStack
      * @param model
@@ -656,6 +1035,60 @@ implements IEditorModelManager {
         }
     }
     
+    /**
+     * Mark a model as modified so that the user is asked to save it.
+     * This executes a Command that does nothing and can't be undone.
+     */
+    private void markModelModified(IArchimateModel model) {
+        CommandStack stack = (CommandStack)model.getAdapter(CommandStack.class);
+        if(stack != null) {
+            stack.execute(new Command(Messages.EditorModelManager_16) {
+                @Override
+                public boolean canUndo() {
+                    return false;
+                }
+            });
+        }
+    }
+    
+    /**
+     * Start recording the model's changes in a change journal next to the model file (if set in Preferences)
+     * @param append If true continue the model file's existing journal
+     */
+    private void startChangeJournal(IArchimateModel model, boolean append) {
+        File file = model.getFile();
+        if(file == null || model.getAdapter(ChangeJournal.class) != null) {
+            return;
+        }
+        
+        if(!ArchiPlugin.getInstance().getPreferenceStore().getBoolean(IPreferenceConstants.CHANGE_JOURNAL)) {
+            // Changes were recovered from the journal but are not being recorded now
+            if(append) {
+                ChangeJournal.delete(file);
+            }
+            return;
+        }
+        
+        try {
+            CommandStack stack = (CommandStack)model.getAdapter(CommandStack.class);
+            model.setAdapter(ChangeJournal.class, ChangeJournal.start(model, stack, append));
+        }
+        catch(IOException ex) {
+            Logger.error("Could not start change journal", ex); //$NON-NLS-1$
+            ex.printStackTrace();
+        }
+    }
+    
+    /**
+     * Stop recording the model's changes and delete the change journal
+     */
+    private void closeChangeJournal(IArchimateModel model) {
+        if(model.getAdapter(ChangeJournal.class) instanceof ChangeJournal journal) {
+            journal.close(true);
+            model.setAdapter(ChangeJournal.class, null);
+        }
+    }
+    
     /**
      * Set all diagram models in a model to be marked as "saved" - this for the editor view persistence
      */
@@ -719,18 +1152,100 @@ implements IEditorModelManager {
         if(backingFile.exists()) {
             Document doc = JDOMUtils.readXMLFile(backingFile);
             if(doc.hasRootElement()) {
+                Set<File> files = new LinkedHashSet<>();
+                
                 Element rootElement = doc.getRootElement();
                 for(Object e : rootElement.getChildren("model")) { //$NON-NLS-1$
                     Element modelElement = (Element)e;
                     String filePath = modelElement.getAttributeValue("file"); //$NON-NLS-1$
                     if(filePath != null) {
-                        loadModel(new File(filePath));
+                        File file = new File(filePath);
+                        if(file.exists()) {
+                            files.add(file);
+                        }
+                    }
+                }
+                
+                // Parse the model files at the same time and then register them in order on this thread
+                for(ParsedModel parsedModel : parseModels(new ArrayList<>(files))) {
+                    if(locateLoadedModel(parsedModel.file()) == null) {
+                        loadModel(parsedModel);
                     }
                 }
             }
         }
     }
     
+    /**
+     * Parse model files on worker threads, showing a busy cursor on the UI thread.
+     * A file that fails on a worker thread is parsed again on this thread.
+     * @return The parsed models in the same order as the files. Files that can't be parsed are not included.
+     */
+    private List<ParsedModel> parseModels(List<File> files) {
+        ParsedModel[] parsedModels = new ParsedModel[files.size()];
+        
+        // Not worth using worker threads for one file, it is parsed below.
+        // This is called from getModels() so it must not run the event loop (as a progress dialog would) while the
+        // list of models is incomplete. Show a busy cursor and block this thread while the workers parse.
+        if(files.size() > 1) {
+            if(Display.getCurrent() != null) {
+                BusyIndicator.showWhile(Display.getCurrent(), () -> parseModelsInParallel(files, parsedModels));
+            }
+            else {
+                parseModelsInParallel(files, parsedModels);
+            }
+        }
+        
+        List<ParsedModel> result = new ArrayList<>();
+        
+        for(int i = 0; i < parsedModels.length; i++) {
+            // Not parsed on a worker thread so parse it on this thread
+            if(parsedModels[i] == null) {
+                try {
+                    parsedModels[i] = parseModel(files.get(i));
+                }
+                catch(RuntimeException ex) {
+                    Logger.error("Error parsing model " + files.get(i), ex); //$NON-NLS-1$
+                    ex.printStackTrace();
+                    continue;
+                }
+            }
+            
+            result.add(parsedModels[i]);
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Parse model files on worker threads and wait for them
+     * @param parsedModels The parsed models are set at the same index as the files. A file that failed is left null.
+     */
+    private void parseModelsInParallel(List<File> files, ParsedModel[] parsedModels) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(files.size(), Runtime.getRuntime().availableProcessors()));
+        
+        try {
+            List<Future<ParsedModel>> futures = new ArrayList<>();
+            for(File file : files) {
+                futures.add(executor.submit(() -> parseModel(file)));
+            }
+            
+            for(int i = 0; i < futures.size(); i++) {
+                try {
+                    parsedModels[i] = futures.get(i).get();
+                }
+                catch(ExecutionException | InterruptedException ex) {
+                    // Carry on with the other files, this one is parsed again on this thread
+                    Logger.error("Error parsing model " + files.get(i), ex); //$NON-NLS-1$
+                    ex.printStackTrace();
+                }
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+    
     //========================== Model Listener events  ==========================
 
     @Override
@@ -748,7 +1263,23 @@ implements IEditorModelManager {
         fListeners.firePropertyChange(new PropertyChangeEvent(source, prop, oldValue, newValue));
     }
     
-    private void notifyChanged(Notification notification) {
-        firePropertyChange(this, PROPERTY_ECORE_EVENT, null, notification);
+    /**
+     * Forward model changes to listeners.
+     * A batch of more than one change, such as the changes made by one command, is sent between PROPERTY_ECORE_EVENTS_START
+     * and PROPERTY_ECORE_EVENTS_END so that views can buffer the changes and update each affected object once.
+     */
+    private void notifyBatchChanged(List<Notification> notifications) {
+        if(notifications.size() == 1) {
+            firePropertyChange(this, PROPERTY_ECORE_EVENT, null, notifications.get(0));
+            return;
+        }
+        
+        firePropertyChange(this, PROPERTY_ECORE_EVENTS_START, false, true);
+        
+        for(Notification notification : notifications) {
+            firePropertyChange(this, PROPERTY_ECORE_EVENT, null, notification);
+        }
+        
+        firePropertyChange(this, PROPERTY_ECORE_EVENTS_END, false, true);
     }
 }
@@ -17,14 +17,22 @@ public class Messages extends NLS {
 
     public static String EditorModelManager_10;
 
+    public static String EditorModelManager_12;
+
     public static String EditorModelManager_13;
 
     public static String EditorModelManager_14;
 
     public static String EditorModelManager_15;
 
+    public static String EditorModelManager_16;
+
+    public static String EditorModelManager_17;
+
     public static String EditorModelManager_18;
 
+    public static String EditorModelManager_19;
+
     public static String EditorModelManager_2;
 
     public static String EditorModelManager_3;
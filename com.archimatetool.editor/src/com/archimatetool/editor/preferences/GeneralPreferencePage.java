@@ -23,6 +23,7 @@ import org.eclipse.ui.PlatformUI;
 
 import com.archimatetool.editor.ArchiPlugin;
 import com.archimatetool.editor.diagram.util.AnimationUtil;
+import com.archimatetool.editor.model.IArchiveManager;
 import com.archimatetool.editor.ui.UIUtils;
 import com.archimatetool.editor.utils.PlatformUtils;
 
@@ -39,6 +40,8 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
     
     private Button fOpenDiagramsOnLoadButton;
     private Button fBackupOnSaveButton;
+    private Button fSaveBinaryFormatButton;
+    private Button fChangeJournalButton;
     
     private Spinner fMRUSizeSpinner;
     
@@ -93,6 +96,20 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         fBackupOnSaveButton.setText(Messages.GeneralPreferencePage_5);
         GridDataFactory.create(GridData.FILL_HORIZONTAL).span(2, 1).applyTo(fBackupOnSaveButton);
         
+        // Save in compact binary format
+        if(IArchiveManager.FACTORY.isBinaryFormatEnabled()) {
+            fSaveBinaryFormatButton = new Button(fileGroup, SWT.CHECK);
+            fSaveBinaryFormatButton.setText(Messages.GeneralPreferencePage_28);
+            fSaveBinaryFormatButton.setToolTipText(Messages.GeneralPreferencePage_29);
+            GridDataFactory.create(GridData.FILL_HORIZONTAL).span(2, 1).applyTo(fSaveBinaryFormatButton);
+        }
+        
+        // Keep a journal of unsaved changes
+        fChangeJournalButton = new Button(fileGroup, SWT.CHECK);
+        fChangeJournalButton.setText(Messages.GeneralPreferencePage_30);
+        fChangeJournalButton.setToolTipText(Messages.GeneralPreferencePage_31);
+        GridDataFactory.create(GridData.FILL_HORIZONTAL).span(2, 1).applyTo(fChangeJournalButton);
+        
         // Size of recently opened file list
         Label label = new Label(fileGroup, SWT.NULL);
         label.setText(Messages.GeneralPreferencePage_2);
@@ -223,6 +240,10 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
         fMRUSizeSpinner.setSelection(getPreferenceStore().getInt(MRU_MAX));
         
         fBackupOnSaveButton.setSelection(getPreferenceStore().getBoolean(BACKUP_ON_SAVE));
+        if(fSaveBinaryFormatButton != null) {
+            fSaveBinaryFormatButton.setSelection(getPreferenceStore().getBoolean(SAVE_BINARY_FORMAT));
+        }
+        fChangeJournalButton.setSelection(getPreferenceStore().getBoolean(CHANGE_JOURNAL));
         fOpenDiagramsOnLoadButton.setSelection(getPreferenceStore().getBoolean(OPEN_DIAGRAMS_ON_LOAD));
         
         fShowUnusedElementsInModelTreeButton.setSelection(getPreferenceStore().getBoolean(HIGHLIGHT_UNUSED_ELEMENTS_IN_MODEL_TREE));
@@ -257,6 +278,10 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
     @Override
     public boolean performOk() {
         getPreferenceStore().setValue(BACKUP_ON_SAVE, fBackupOnSaveButton.getSelection());
+        if(fSaveBinaryFormatButton != null) {
+            getPreferenceStore().setValue(SAVE_BINARY_FORMAT, fSaveBinaryFormatButton.getSelection());
+        }
+        getPreferenceStore().setValue(CHANGE_JOURNAL, fChangeJournalButton.getSelection());
         getPreferenceStore().setValue(OPEN_DIAGRAMS_ON_LOAD, fOpenDiagramsOnLoadButton.getSelection());
         getPreferenceStore().setValue(MRU_MAX, fMRUSizeSpinner.getSelection());
         
@@ -294,6 +319,10 @@ implements IWorkbenchPreferencePage, IPreferenceConstants {
     @Override
     protected void performDefaults() {
         fBackupOnSaveButton.setSelection(getPreferenceStore().getDefaultBoolean(BACKUP_ON_SAVE));
+        if(fSaveBinaryFormatButton != null) {
+            fSaveBinaryFormatButton.setSelection(getPreferenceStore().getDefaultBoolean(SAVE_BINARY_FORMAT));
+        }
+        fChangeJournalButton.setSelection(getPreferenceStore().getDefaultBoolean(CHANGE_JOURNAL));
         fOpenDiagramsOnLoadButton.setSelection(getPreferenceStore().getDefaultBoolean(OPEN_DIAGRAMS_ON_LOAD));
         fMRUSizeSpinner.setSelection(getPreferenceStore().getDefaultInt(MRU_MAX));
         
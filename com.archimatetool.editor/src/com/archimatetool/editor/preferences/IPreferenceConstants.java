@@ -137,6 +137,8 @@ public interface IPreferenceConstants {
     
     String OPEN_DIAGRAMS_ON_LOAD = "openDiagramsOnLoad";
     String BACKUP_ON_SAVE = "backupOnSave";
+    String SAVE_BINARY_FORMAT = "saveBinaryFormat";
+    String CHANGE_JOURNAL = "changeJournal";
     
     String HIGHLIGHT_UNUSED_ELEMENTS_IN_MODEL_TREE = "highlightUnusedElementsInModelTree";
     String TREE_SEARCH_AUTO = "treeSearchAuto";
@@ -305,8 +305,16 @@ public class Messages extends NLS {
 
     public static String GeneralPreferencePage_27;
 
+    public static String GeneralPreferencePage_28;
+
+    public static String GeneralPreferencePage_29;
+
     public static String GeneralPreferencePage_3;
 
+    public static String GeneralPreferencePage_30;
+
+    public static String GeneralPreferencePage_31;
+
     public static String GeneralPreferencePage_4;
 
     public static String GeneralPreferencePage_5;
@@ -125,6 +125,8 @@ implements IPreferenceConstants {
         
         store.setDefault(OPEN_DIAGRAMS_ON_LOAD, false);
         store.setDefault(BACKUP_ON_SAVE, true);
+        store.setDefault(SAVE_BINARY_FORMAT, false);
+        store.setDefault(CHANGE_JOURNAL, false);
 
         store.setDefault(HIGHLIGHT_UNUSED_ELEMENTS_IN_MODEL_TREE, true);
         store.setDefault(TREE_SEARCH_AUTO, true);
@@ -17,6 +17,7 @@ import com.archimatetool.model.IDiagramModelConnection;
 import com.archimatetool.model.IDiagramModelGroup;
 import com.archimatetool.model.IDiagramModelNote;
 import com.archimatetool.model.IDiagramModelReference;
+import com.archimatetool.model.IFeatures;
 import com.archimatetool.model.IFolder;
 import com.archimatetool.model.IJunction;
 
@@ -143,7 +144,8 @@ public class TextRenderer {
      * @return the object's text expression or null if not present
      */
     public String getFormatExpression(IArchimateModelObject object) {
-        return object.getFeatures().getString(FEATURE_NAME, null);
+        // Don't create the features list when rendering objects that have no features
+        return IFeatures.getFeatureString(object, FEATURE_NAME, null);
     }
     
     /**
@@ -0,0 +1,205 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.views.diagnostics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IAction;
+import org.eclipse.jface.layout.TreeColumnLayout;
+import org.eclipse.jface.viewers.ColumnWeightData;
+import org.eclipse.jface.viewers.ITableLabelProvider;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeColumn;
+import org.eclipse.ui.ISharedImages;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.part.ViewPart;
+
+import com.archimatetool.editor.model.ModelDiagnostics;
+import com.archimatetool.model.util.PhaseTimings;
+import com.archimatetool.model.util.PhaseTimings.Phase;
+
+
+/**
+ * Diagnostics View showing the time taken by each phase of the most recent model loads and saves
+ *
+ * @author Phillip Beauvoir
+ */
+public class DiagnosticsView extends ViewPart {
+
+    public static final String ID = "com.archimatetool.editor.diagnosticsView"; //$NON-NLS-1$
+
+    private TreeViewer fTreeViewer;
+
+    // Timings can be added on any thread
+    private Consumer<PhaseTimings> fListener = timings -> {
+        Display.getDefault().asyncExec(() -> {
+            if(fTreeViewer != null && !fTreeViewer.getControl().isDisposed()) {
+                fTreeViewer.setInput(getHistory());
+                fTreeViewer.expandToLevel(timings, 1);
+            }
+        });
+    };
+
+    @Override
+    public void createPartControl(Composite parent) {
+        Composite treeComp = new Composite(parent, SWT.NONE);
+        TreeColumnLayout layout = new TreeColumnLayout();
+        treeComp.setLayout(layout);
+
+        fTreeViewer = new TreeViewer(treeComp, SWT.FULL_SELECTION | SWT.MULTI);
+
+        Tree tree = fTreeViewer.getTree();
+        tree.setHeaderVisible(true);
+        tree.setLinesVisible(true);
+
+        TreeColumn column = new TreeColumn(tree, SWT.NONE);
+        column.setText(Messages.DiagnosticsView_0);
+        layout.setColumnData(column, new ColumnWeightData(60, true));
+
+        column = new TreeColumn(tree, SWT.RIGHT);
+        column.setText(Messages.DiagnosticsView_1);
+        layout.setColumnData(column, new ColumnWeightData(20, true));
+
+        column = new TreeColumn(tree, SWT.RIGHT);
+        column.setText(Messages.DiagnosticsView_2);
+        layout.setColumnData(column, new ColumnWeightData(20, true));
+
+        fTreeViewer.setContentProvider(new DiagnosticsContentProvider());
+        fTreeViewer.setLabelProvider(new DiagnosticsLabelProvider());
+        fTreeViewer.setInput(getHistory());
+
+        IAction clearAction = new Action(Messages.DiagnosticsView_3) {
+            @Override
+            public void run() {
+                ModelDiagnostics.clear();
+                fTreeViewer.setInput(getHistory());
+            }
+        };
+        clearAction.setToolTipText(Messages.DiagnosticsView_4);
+        clearAction.setImageDescriptor(PlatformUI.getWorkbench().getSharedImages().getImageDescriptor(ISharedImages.IMG_ETOOL_CLEAR));
+        getViewSite().getActionBars().getToolBarManager().add(clearAction);
+
+        ModelDiagnostics.addListener(fListener);
+    }
+
+    /**
+     * @return The timings with the most recent first
+     */
+    private List<PhaseTimings> getHistory() {
+        List<PhaseTimings> history = ModelDiagnostics.getHistory();
+        Collections.reverse(history);
+        return history;
+    }
+
+    @Override
+    public void setFocus() {
+        if(fTreeViewer != null) {
+            fTreeViewer.getControl().setFocus();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        ModelDiagnostics.removeListener(fListener);
+    }
+
+    /**
+     * A count shown as a child of its timings. This is not a record because counts in different timings
+     * can have the same name and value and the viewer needs them to be different elements.
+     */
+    private static class Count {
+        final String name;
+        final long value;
+
+        Count(String name, long value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+
+    private static class DiagnosticsContentProvider implements ITreeContentProvider {
+
+        @Override
+        public Object[] getElements(Object inputElement) {
+            return ((List<?>)inputElement).toArray();
+        }
+
+        @Override
+        public Object[] getChildren(Object parentElement) {
+            if(parentElement instanceof PhaseTimings timings) {
+                List<Object> children = new ArrayList<>(timings.getPhases());
+                timings.getCounts().forEach((name, value) -> children.add(new Count(name, value)));
+                return children.toArray();
+            }
+            return new Object[0];
+        }
+
+        @Override
+        public Object getParent(Object element) {
+            return null;
+        }
+
+        @Override
+        public boolean hasChildren(Object element) {
+            return element instanceof PhaseTimings timings && (!timings.isEmpty() || !timings.getCounts().isEmpty());
+        }
+    }
+
+    private static class DiagnosticsLabelProvider extends LabelProvider implements ITableLabelProvider {
+
+        @Override
+        public Image getColumnImage(Object element, int columnIndex) {
+            return null;
+        }
+
+        @Override
+        public String getColumnText(Object element, int columnIndex) {
+            if(element instanceof PhaseTimings timings) {
+                return switch(columnIndex) {
+                    case 0 -> timings.getName();
+                    case 1 -> formatMillis(timings.getTotalNanos());
+                    default -> ""; //$NON-NLS-1$
+                };
+            }
+
+            if(element instanceof Phase phase) {
+                return switch(columnIndex) {
+                    case 0 -> phase.name();
+                    case 1 -> formatMillis(phase.nanos());
+                    default -> phase.size() >= 0 ? String.format("%,d", phase.size()) : ""; //$NON-NLS-1$ //$NON-NLS-2$
+                };
+            }
+
+            // A count is shown in the size column
+            if(element instanceof Count count) {
+                return switch(columnIndex) {
+                    case 0 -> count.name;
+                    case 2 -> String.format("%,d", count.value); //$NON-NLS-1$
+                    default -> ""; //$NON-NLS-1$
+                };
+            }
+
+            return ""; //$NON-NLS-1$
+        }
+
+        private String formatMillis(long nanos) {
+            return String.format(Locale.getDefault(), "%,.1f", nanos / 1_000_000.0); //$NON-NLS-1$
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.editor.views.diagnostics;
+
+import org.eclipse.osgi.util.NLS;
+
+public class Messages extends NLS {
+
+    private static final String BUNDLE_NAME = "com.archimatetool.editor.views.diagnostics.messages"; //$NON-NLS-1$
+
+    public static String DiagnosticsView_0;
+
+    public static String DiagnosticsView_1;
+
+    public static String DiagnosticsView_2;
+
+    public static String DiagnosticsView_3;
+
+    public static String DiagnosticsView_4;
+    static {
+        // initialize resource bundle
+        NLS.initializeMessages(BUNDLE_NAME, Messages.class);
+    }
+
+    private Messages() {
+    }
+}
@@ -6,7 +6,9 @@
 package com.archimatetool.editor.views.navigator;
 
 import java.beans.PropertyChangeEvent;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.emf.common.notify.Notification;
@@ -356,11 +358,22 @@ implements INavigatorView, ISelectionListener {
     
     @Override
     protected void doRefreshFromNotifications(List<Notification> notifications) {
+        // Update each renamed object once
+        Set<Object> renamed = new LinkedHashSet<>();
+        
         for(Notification msg : notifications) {
-            if(doRefresh(msg)) {
-                break; // Only need to refresh once
+            if(isRefreshEvent(msg)) {
+                getViewer().refreshTreePreservingExpandedNodes();
+                return; // Only need to refresh once and this updates the names
+            }
+            if(msg.getFeature() == IArchimatePackage.Literals.NAMEABLE__NAME) {
+                renamed.add(msg.getNotifier());
             }
         }
+        
+        if(!renamed.isEmpty()) {
+            getViewer().update(renamed.toArray(), null);
+        }
     }
     
     private boolean doRefresh(Notification msg) {
@@ -41,7 +41,7 @@ public class SaveModelAction extends ViewerAction {
         IArchimateModel model = getModel();
         if(model != null) {
             try {
-                IEditorModelManager.INSTANCE.saveModel(model);
+                IEditorModelManager.INSTANCE.saveModelInBackground(model);
             }
             catch(IOException ex) {
                 MessageDialog.openError(fView.getSite().getShell(), Messages.SaveModelAction_1, ex.getMessage());
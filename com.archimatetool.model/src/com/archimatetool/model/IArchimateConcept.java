@@ -35,5 +35,13 @@ public interface IArchimateConcept extends IArchimateModelObject, ICloneable, ID
      * @return A list of diagram components that reference this concept
      */
     List<? extends IDiagramModelArchimateComponent> getReferencingDiagramComponents();
+    
+    /**
+     * @return true if this concept is referenced by a diagram component in a diagram model.
+     * This can be quicker than getReferencingDiagramComponents() as it does not need to load the children of diagram models.
+     */
+    default boolean isReferencedInDiagrams() {
+        return !getReferencingDiagramComponents().isEmpty();
+    }
 
 } // IArchimateConcept
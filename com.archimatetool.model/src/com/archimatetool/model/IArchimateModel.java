@@ -208,6 +208,25 @@ public interface IArchimateModel extends IFolderContainer, IArchimateModelObject
      */
     boolean removeModelContentListener(IModelContentListener listener);
     
+    /**
+     * Begin a batch of changes. Until the matching call to {@link #endBatch()} notifications are collected for
+     * listeners that implement {@link com.archimatetool.model.util.IModelContentBatchListener} and delivered to
+     * them together when the batch ends. Other listeners are notified of each change as it happens.
+     * Batches can be nested, in which case the notifications are delivered when the outermost batch ends.
+     */
+    void beginBatch();
+    
+    /**
+     * End a batch of changes started with {@link #beginBatch()}
+     * @throws IllegalStateException if there is no batch to end
+     */
+    void endBatch();
+    
+    /**
+     * @return true if a batch of changes has begun and not yet ended
+     */
+    boolean isInBatch();
+    
     /**
      * Dispose of this model to free memory
      */
@@ -5,6 +5,8 @@
  */
 package com.archimatetool.model;
 
+import java.util.Objects;
+
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EObject;
 
@@ -71,4 +73,83 @@ public interface IFeatures extends EObject {
             && name.equals(((IFeature)msg.getNotifier()).getName());
     }
 
+    /**
+     * Get a feature value without creating the features list if the object has no features.
+     * Use this where features are read often, such as when painting figures.
+     * @param object The object
+     * @param name The name of the feature
+     * @param defaultValue The value to return if the feature is not set
+     * @return The feature's value or defaultValue
+     */
+    public static String getFeatureString(IFeatures object, String name, String defaultValue) {
+        return object.eIsSet(IArchimatePackage.Literals.FEATURES__FEATURES) ? object.getFeatures().getString(name, defaultValue) : defaultValue;
+    }
+
+    /**
+     * Get a feature value without creating the features list if the object has no features.
+     * Use this where features are read often, such as when painting figures.
+     * @param object The object
+     * @param name The name of the feature
+     * @param defaultValue The value to return if the feature is not set
+     * @return The feature's value or defaultValue
+     */
+    public static boolean getFeatureBoolean(IFeatures object, String name, boolean defaultValue) {
+        return object.eIsSet(IArchimatePackage.Literals.FEATURES__FEATURES) ? object.getFeatures().getBoolean(name, defaultValue) : defaultValue;
+    }
+
+    /**
+     * Get a feature value without creating the features list if the object has no features.
+     * Use this where features are read often, such as when painting figures.
+     * @param object The object
+     * @param name The name of the feature
+     * @param defaultValue The value to return if the feature is not set or is not an int
+     * @return The feature's value or defaultValue
+     */
+    public static int getFeatureInt(IFeatures object, String name, int defaultValue) {
+        return object.eIsSet(IArchimatePackage.Literals.FEATURES__FEATURES) ? object.getFeatures().getInt(name, defaultValue) : defaultValue;
+    }
+
+    /**
+     * Set a feature value, or remove the feature if value is the default value.
+     * The features list is not created if the object has no features and value is the default value.
+     * @param object The object
+     * @param name The name of the feature
+     * @param value The value
+     * @param defaultValue The default value
+     */
+    public static void putFeatureString(IFeatures object, String name, String value, String defaultValue) {
+        if(object.eIsSet(IArchimatePackage.Literals.FEATURES__FEATURES)
+                || !Objects.equals(Objects.requireNonNullElse(value, ""), Objects.requireNonNullElse(defaultValue, ""))) { //$NON-NLS-1$ //$NON-NLS-2$
+            object.getFeatures().putString(name, value, defaultValue);
+        }
+    }
+
+    /**
+     * Set a feature value, or remove the feature if value is the default value.
+     * The features list is not created if the object has no features and value is the default value.
+     * @param object The object
+     * @param name The name of the feature
+     * @param value The value
+     * @param defaultValue The default value
+     */
+    public static void putFeatureInt(IFeatures object, String name, int value, int defaultValue) {
+        if(object.eIsSet(IArchimatePackage.Literals.FEATURES__FEATURES) || value != defaultValue) {
+            object.getFeatures().putInt(name, value, defaultValue);
+        }
+    }
+
+    /**
+     * Set a feature value, or remove the feature if value is the default value.
+     * The features list is not created if the object has no features and value is the default value.
+     * @param object The object
+     * @param name The name of the feature
+     * @param value The value
+     * @param defaultValue The default value
+     */
+    public static void putFeatureBoolean(IFeatures object, String name, boolean value, boolean defaultValue) {
+        if(object.eIsSet(IArchimatePackage.Literals.FEATURES__FEATURES) || value != defaultValue) {
+            object.getFeatures().putBoolean(name, value, defaultValue);
+        }
+    }
+
 } // IFeatures
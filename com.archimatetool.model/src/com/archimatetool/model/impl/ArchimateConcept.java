@@ -7,6 +7,8 @@ package com.archimatetool.model.impl;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.notify.NotificationChain;
@@ -16,7 +18,6 @@ import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.InternalEObject;
 import org.eclipse.emf.ecore.impl.ENotificationImpl;
-import org.eclipse.emf.ecore.impl.EObjectImpl;
 import org.eclipse.emf.ecore.util.EObjectContainmentEList;
 import org.eclipse.emf.ecore.util.EObjectEList;
 import org.eclipse.emf.ecore.util.EcoreUtil;
@@ -58,7 +59,7 @@ import com.archimatetool.model.util.UUIDFactory;
  *
  * @generated
  */
-public abstract class ArchimateConcept extends EObjectImpl implements IArchimateConcept {
+public abstract class ArchimateConcept extends ContentNotifyingEObject implements IArchimateConcept {
     /**
      * The default value of the '{@link #getName() <em>Name</em>}' attribute.
      * <!-- begin-user-doc -->
@@ -159,6 +160,11 @@ public abstract class ArchimateConcept extends EObjectImpl implements IArchimate
      */
     protected EList<IArchimateRelationship> sourceRelationships, targetRelationships;
 
+    /**
+     * Diagram models that reference this concept in children that have not been loaded yet
+     */
+    private Set<DiagramModel> lazyDiagramModels;
+
     /**
      * <!-- begin-user-doc -->
      * <!-- end-user-doc -->
@@ -168,6 +174,49 @@ public abstract class ArchimateConcept extends EObjectImpl implements IArchimate
         super();
         id = UUIDFactory.createID(this);
     }
+    
+    synchronized void addLazyDiagramModel(DiagramModel diagramModel) {
+        if(lazyDiagramModels == null) {
+            lazyDiagramModels = new CopyOnWriteArraySet<>();
+        }
+        lazyDiagramModels.add(diagramModel);
+    }
+    
+    synchronized void removeLazyDiagramModel(DiagramModel diagramModel) {
+        if(lazyDiagramModels != null) {
+            lazyDiagramModels.remove(diagramModel);
+        }
+    }
+    
+    /**
+     * Load the children of diagram models in the model that reference this concept and have not been loaded yet
+     * so that the referencing diagram components are set
+     */
+    void loadLazyDiagramModels() {
+        Set<DiagramModel> diagramModels = lazyDiagramModels;
+        if(diagramModels != null) {
+            for(DiagramModel diagramModel : diagramModels) {
+                if(diagramModel.getArchimateModel() != null) {
+                    diagramModel.getChildren();
+                }
+            }
+        }
+    }
+    
+    @Override
+    public boolean isReferencedInDiagrams() {
+        // If there is a diagram model in the model that hasn't been loaded and references this we don't need to load it
+        Set<DiagramModel> diagramModels = lazyDiagramModels;
+        if(diagramModels != null) {
+            for(DiagramModel diagramModel : diagramModels) {
+                if(diagramModel.hasLazyContents() && diagramModel.getArchimateModel() != null) {
+                    return true;
+                }
+            }
+        }
+        
+        return !getReferencingDiagramComponents().isEmpty();
+    }
 
     /**
      * <!-- begin-user-doc -->
@@ -60,6 +60,8 @@ public abstract class ArchimateElement extends ArchimateConcept implements IArch
      */
     @Override
     public List<IDiagramModelArchimateObject> getReferencingDiagramObjects() {
+        loadLazyDiagramModels();
+        
         List<IDiagramModelArchimateObject> list = new ArrayList<>();
         
         for(IDiagramModelArchimateObject dmo : diagramObjects) {
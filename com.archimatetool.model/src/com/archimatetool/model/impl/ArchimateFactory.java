@@ -106,6 +106,7 @@ import com.archimatetool.model.ITriggeringRelationship;
 import com.archimatetool.model.IValue;
 import com.archimatetool.model.IValueStream;
 import com.archimatetool.model.IWorkPackage;
+import com.archimatetool.model.util.StringPool;
 
 
 /**
@@ -303,8 +304,8 @@ public class ArchimateFactory extends EFactoryImpl implements IArchimateFactory
     @Override
     public IFeature createFeature(String name, String value) {
         Feature feature = new Feature();
-        feature.setName(name);
-        feature.setValue(value);
+        feature.setName(StringPool.INSTANCE.intern(name));
+        feature.setValue(StringPool.INSTANCE.intern(value));
         return feature;
     }
 
@@ -314,8 +315,8 @@ public class ArchimateFactory extends EFactoryImpl implements IArchimateFactory
     @Override
     public IProperty createProperty(String key, String value) {
         IProperty property = createProperty();
-        property.setKey(key);
-        property.setValue(value);
+        property.setKey(StringPool.INSTANCE.intern(key));
+        property.setValue(StringPool.INSTANCE.intern(value));
         return property;
     }
 
@@ -7,7 +7,10 @@ package com.archimatetool.model.impl;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -19,8 +22,6 @@ import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.InternalEObject;
 import org.eclipse.emf.ecore.impl.ENotificationImpl;
-import org.eclipse.emf.ecore.impl.EObjectImpl;
-import org.eclipse.emf.ecore.util.EContentAdapter;
 import org.eclipse.emf.ecore.util.EObjectContainmentEList;
 import org.eclipse.emf.ecore.util.InternalEList;
 
@@ -52,6 +53,7 @@ import com.archimatetool.model.IProperties;
 import com.archimatetool.model.IProperty;
 import com.archimatetool.model.IStrategyElement;
 import com.archimatetool.model.ITechnologyElement;
+import com.archimatetool.model.util.IModelContentBatchListener;
 import com.archimatetool.model.util.IModelContentListener;
 import com.archimatetool.model.util.UUIDFactory;
 
@@ -78,7 +80,7 @@ import com.archimatetool.model.util.UUIDFactory;
  *
  * @generated
  */
-public class ArchimateModel extends EObjectImpl implements IArchimateModel {
+public class ArchimateModel extends ContentNotifyingEObject implements IArchimateModel {
     /**
      * The cached value of the '{@link #getFolders() <em>Folders</em>}' containment reference list.
      * <!-- begin-user-doc -->
@@ -229,27 +231,11 @@ public class ArchimateModel extends EObjectImpl implements IArchimateModel {
     private CopyOnWriteArrayList<IModelContentListener> fContentListeners = new CopyOnWriteArrayList<>();
     
     /**
-     * One central EContentAdapter to listen to all model changes and forward on to listeners
+     * Depth of nested batches and the notifications collected in the current batch for batch listeners
      */
-    private EContentAdapter eContentAdapter = new EContentAdapter() {
-        @Override
-        public void notifyChanged(Notification notification) {
-            super.notifyChanged(notification);
-            
-            // Not interested in this type
-            if(notification.getEventType() == Notification.REMOVING_ADAPTER) {
-                return;
-            }
-            
-            // Notify model listeners
-            if(fContentListeners != null) {
-                for(IModelContentListener listener : fContentListeners) {
-                    listener.notifyChanged(notification);
-                }
-            }
-        }
-    };
-
+    private int fBatchDepth;
+    private List<Notification> fBatchNotifications;
+    
     /**
      * <!-- begin-user-doc -->
      * <!-- end-user-doc -->
@@ -267,10 +253,6 @@ public class ArchimateModel extends EObjectImpl implements IArchimateModel {
             return false;
         }
         
-        if(!eAdapters().contains(eContentAdapter)) {
-            eAdapters().add(eContentAdapter);
-        }
-        
         return fContentListeners.addIfAbsent(listener);
     }
     
@@ -283,6 +265,71 @@ public class ArchimateModel extends EObjectImpl implements IArchimateModel {
         return fContentListeners.remove(listener);
     }
     
+    /**
+     * @return true if there are model content listeners
+     */
+    boolean hasContentListeners() {
+        return fContentListeners != null && !fContentListeners.isEmpty();
+    }
+    
+    /**
+     * Forward a notification from this model or an object contained in it to the model content listeners
+     * @see ContentNotifyingEObject
+     */
+    void notifyContentListeners(Notification notification) {
+        // Not interested in this type
+        if(notification.getEventType() == Notification.REMOVING_ADAPTER || fContentListeners == null) {
+            return;
+        }
+        
+        boolean inBatch = fBatchDepth > 0;
+        
+        for(IModelContentListener listener : fContentListeners) {
+            // Batch listeners are notified when the batch ends
+            if(!(inBatch && listener instanceof IModelContentBatchListener)) {
+                listener.notifyChanged(notification);
+            }
+        }
+        
+        if(inBatch) {
+            fBatchNotifications.add(notification);
+        }
+    }
+    
+    @Override
+    public void beginBatch() {
+        if(fBatchDepth++ == 0) {
+            fBatchNotifications = new ArrayList<>();
+        }
+    }
+    
+    @Override
+    public void endBatch() {
+        if(fBatchDepth == 0) {
+            throw new IllegalStateException("No batch to end"); //$NON-NLS-1$
+        }
+        
+        if(--fBatchDepth > 0) {
+            return;
+        }
+        
+        List<Notification> notifications = Collections.unmodifiableList(fBatchNotifications);
+        fBatchNotifications = null;
+        
+        if(!notifications.isEmpty() && fContentListeners != null) {
+            for(IModelContentListener listener : fContentListeners) {
+                if(listener instanceof IModelContentBatchListener batchListener) {
+                    batchListener.notifyBatchChanged(notifications);
+                }
+            }
+        }
+    }
+    
+    @Override
+    public boolean isInBatch() {
+        return fBatchDepth > 0;
+    }
+    
     /**
      * <!-- begin-user-doc -->
      * <!-- end-user-doc -->
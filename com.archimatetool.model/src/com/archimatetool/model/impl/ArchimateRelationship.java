@@ -203,6 +203,8 @@ public abstract class ArchimateRelationship extends ArchimateConcept implements
      */
     @Override
     public List<IDiagramModelArchimateConnection> getReferencingDiagramConnections() {
+        loadLazyDiagramModels();
+        
         List<IDiagramModelArchimateConnection> list = new ArrayList<>();
         
         for(IDiagramModelArchimateConnection dmc : diagramConnections) {
@@ -0,0 +1,61 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.model.impl;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.impl.EObjectImpl;
+
+/**
+ * Base class of the model objects.<p>
+ *
+ * Each notification is forwarded up the containment hierarchy to the {@link ArchimateModel} that contains the object
+ * so that the model's content listeners are notified. This replaces adding an EContentAdapter to every object in the model,
+ * which costs an adapter list on each object and a walk of the whole model when the adapter is added.<p>
+ *
+ * Set as the root extends class in the genmodel.
+ *
+ * @author Phillip Beauvoir
+ */
+public abstract class ContentNotifyingEObject extends EObjectImpl {
+
+    protected ContentNotifyingEObject() {
+        super();
+    }
+
+    @Override
+    public boolean eNotificationRequired() {
+        return super.eNotificationRequired() || (eDeliver() && getNotifyingModel() != null);
+    }
+
+    @Override
+    public void eNotify(Notification notification) {
+        super.eNotify(notification);
+
+        if(eDeliver()) {
+            ArchimateModel model = getNotifyingModel();
+            if(model != null) {
+                model.notifyContentListeners(notification);
+            }
+        }
+    }
+
+    /**
+     * @return The model containing this object if it has content listeners, or null.
+     *         Null is also returned while the object is being loaded as part of the lazy contents of a Diagram Model.
+     */
+    private ArchimateModel getNotifyingModel() {
+        InternalEObject eObject = this;
+
+        for(InternalEObject container; (container = eObject.eInternalContainer()) != null; eObject = container) {
+            if(container instanceof DiagramModel dm && dm.isLoadingLazyContents()) {
+                return null;
+            }
+        }
+
+        return eObject instanceof ArchimateModel model && model.hasContentListeners() ? model : null;
+    }
+}
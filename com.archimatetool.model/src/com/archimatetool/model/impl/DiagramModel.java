@@ -9,6 +9,7 @@ package com.archimatetool.model.impl;
 import java.util.Collection;
 import java.util.Map;
 
+import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.notify.NotificationChain;
 import org.eclipse.emf.common.util.EList;
@@ -16,11 +17,12 @@ import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.InternalEObject;
 import org.eclipse.emf.ecore.impl.ENotificationImpl;
-import org.eclipse.emf.ecore.impl.EObjectImpl;
+import org.eclipse.emf.ecore.util.EContentAdapter;
 import org.eclipse.emf.ecore.util.EObjectContainmentEList;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.emf.ecore.util.InternalEList;
 
+import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IArchimateModelObject;
 import com.archimatetool.model.IArchimatePackage;
@@ -37,6 +39,7 @@ import com.archimatetool.model.IIdentifier;
 import com.archimatetool.model.INameable;
 import com.archimatetool.model.IProperties;
 import com.archimatetool.model.IProperty;
+import com.archimatetool.model.util.LazyDiagramContents;
 import com.archimatetool.model.util.UUIDFactory;
 
 
@@ -59,7 +62,7 @@ import com.archimatetool.model.util.UUIDFactory;
  *
  * @generated
  */
-public abstract class DiagramModel extends EObjectImpl implements IDiagramModel {
+public abstract class DiagramModel extends ContentNotifyingEObject implements IDiagramModel {
     /**
      * The default value of the '{@link #getName() <em>Name</em>}' attribute.
      * <!-- begin-user-doc -->
@@ -175,6 +178,16 @@ public abstract class DiagramModel extends EObjectImpl implements IDiagramModel
      */
     private Map<Object, Object> fAdapterMap;
 
+    /**
+     * Children that have not been loaded yet
+     */
+    private volatile LazyDiagramContents lazyContents;
+
+    /**
+     * Set when the lazy children are being loaded
+     */
+    private boolean isLoadingLazyContents;
+
     /**
      * <!-- begin-user-doc -->
      * <!-- end-user-doc -->
@@ -277,16 +290,80 @@ public abstract class DiagramModel extends EObjectImpl implements IDiagramModel
     /**
      * <!-- begin-user-doc -->
      * <!-- end-user-doc -->
-     * @generated
+     * @generated NOT
      */
     @Override
     public EList<IDiagramModelObject> getChildren() {
+        if (lazyContents != null && !LazyDiagramContents.isLoadingSuppressed()) {
+            loadLazyContents();
+        }
         if (children == null) {
             children = new EObjectContainmentEList<IDiagramModelObject>(IDiagramModelObject.class, this, IArchimatePackage.DIAGRAM_MODEL__CHILDREN);
         }
         return children;
     }
 
+    /**
+     * Set the children to be loaded when they are first accessed.
+     * Concepts referenced by the children are told that they are referenced in this diagram model.
+     * @param contents The unloaded children
+     */
+    public void setLazyContents(LazyDiagramContents contents) {
+        lazyContents = contents;
+        
+        for(IArchimateConcept concept : contents.getReferencedConcepts()) {
+            ((ArchimateConcept)concept).addLazyDiagramModel(this);
+        }
+    }
+    
+    /**
+     * @return true if this diagram model has children that have not been loaded yet
+     */
+    public boolean hasLazyContents() {
+        return lazyContents != null;
+    }
+    
+    /**
+     * @return true while the lazy contents are being loaded. Model content listeners are not notified of these changes.
+     */
+    boolean isLoadingLazyContents() {
+        return isLoadingLazyContents;
+    }
+    
+    private synchronized void loadLazyContents() {
+        // Already loaded by another thread, or we are being called while loading
+        if(lazyContents == null || isLoadingLazyContents) {
+            return;
+        }
+        
+        isLoadingLazyContents = true;
+        
+        // Loading the children is not a model change so don't send notifications
+        boolean deliver = eDeliver();
+        eSetDeliver(false);
+        
+        try {
+            lazyContents.load(this);
+        }
+        finally {
+            eSetDeliver(deliver);
+            
+            for(IArchimateConcept concept : lazyContents.getReferencedConcepts()) {
+                ((ArchimateConcept)concept).removeLazyDiagramModel(this);
+            }
+            
+            lazyContents = null;
+            isLoadingLazyContents = false;
+        }
+        
+        // Content adapters that are already attached to this diagram model now adapt the new children
+        for(Adapter adapter : eAdapters().toArray(new Adapter[eAdapters().size()])) {
+            if(adapter instanceof EContentAdapter) {
+                adapter.setTarget(this);
+            }
+        }
+    }
+
     /**
      * <!-- begin-user-doc -->
      * <!-- end-user-doc -->
@@ -496,7 +573,7 @@ public abstract class DiagramModel extends EObjectImpl implements IDiagramModel
     /**
      * <!-- begin-user-doc -->
      * <!-- end-user-doc -->
-     * @generated
+     * @generated NOT
      */
     @Override
     public boolean eIsSet(int featureID) {
@@ -508,7 +585,7 @@ public abstract class DiagramModel extends EObjectImpl implements IDiagramModel
             case IArchimatePackage.DIAGRAM_MODEL__FEATURES:
                 return features != null && !features.isEmpty();
             case IArchimatePackage.DIAGRAM_MODEL__CHILDREN:
-                return children != null && !children.isEmpty();
+                return lazyContents != null || (children != null && !children.isEmpty());
             case IArchimatePackage.DIAGRAM_MODEL__DOCUMENTATION:
                 return DOCUMENTATION_EDEFAULT == null ? documentation != null : !DOCUMENTATION_EDEFAULT.equals(documentation);
             case IArchimatePackage.DIAGRAM_MODEL__PROPERTIES:
@@ -25,6 +25,7 @@ import com.archimatetool.model.IDiagramModelArchimateObject;
 import com.archimatetool.model.IDiagramModelContainer;
 import com.archimatetool.model.IDiagramModelImageProvider;
 import com.archimatetool.model.IDiagramModelObject;
+import com.archimatetool.model.IFeatures;
 import com.archimatetool.model.IFolder;
 import com.archimatetool.model.IIconic;
 import com.archimatetool.model.ITextPosition;
@@ -181,12 +182,12 @@ public class DiagramModelArchimateObject extends DiagramModelObject implements I
 
     @Override
     public int getImageSource() {
-        return getFeatures().getInt(FEATURE_IMAGE_SOURCE, FEATURE_IMAGE_SOURCE_DEFAULT);
+        return IFeatures.getFeatureInt(this, FEATURE_IMAGE_SOURCE, FEATURE_IMAGE_SOURCE_DEFAULT);
     }
 
     @Override
     public void setImageSource(int value) {
-        getFeatures().putInt(FEATURE_IMAGE_SOURCE, value, FEATURE_IMAGE_SOURCE_DEFAULT);
+        IFeatures.putFeatureInt(this, FEATURE_IMAGE_SOURCE, value, FEATURE_IMAGE_SOURCE_DEFAULT);
     }
 
     @Override
@@ -9,7 +9,6 @@ import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.impl.ENotificationImpl;
-import org.eclipse.emf.ecore.impl.EObjectImpl;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 
 import com.archimatetool.model.IArchimatePackage;
@@ -32,7 +31,7 @@ import com.archimatetool.model.IDiagramModelBendpoint;
  *
  * @generated
  */
-public class DiagramModelBendpoint extends EObjectImpl implements IDiagramModelBendpoint {
+public class DiagramModelBendpoint extends ContentNotifyingEObject implements IDiagramModelBendpoint {
     /**
      * The default value of the '{@link #getStartX() <em>Start X</em>}' attribute.
      * <!-- begin-user-doc -->
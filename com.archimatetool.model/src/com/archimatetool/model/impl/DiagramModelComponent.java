@@ -15,7 +15,6 @@ import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.InternalEObject;
 import org.eclipse.emf.ecore.impl.ENotificationImpl;
-import org.eclipse.emf.ecore.impl.EObjectImpl;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.emf.ecore.util.InternalEList;
 
@@ -48,7 +47,7 @@ import com.archimatetool.model.util.UUIDFactory;
  *
  * @generated
  */
-public abstract class DiagramModelComponent extends EObjectImpl implements IDiagramModelComponent {
+public abstract class DiagramModelComponent extends ContentNotifyingEObject implements IDiagramModelComponent {
     /**
      * The default value of the '{@link #getId() <em>Id</em>}' attribute.
      * <!-- begin-user-doc -->
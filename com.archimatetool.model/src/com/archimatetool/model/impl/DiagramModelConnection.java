@@ -22,6 +22,7 @@ import com.archimatetool.model.IConnectable;
 import com.archimatetool.model.IDiagramModelBendpoint;
 import com.archimatetool.model.IDiagramModelConnection;
 import com.archimatetool.model.IDocumentable;
+import com.archimatetool.model.IFeatures;
 import com.archimatetool.model.IFontAttribute;
 import com.archimatetool.model.ILineObject;
 import com.archimatetool.model.IProperties;
@@ -286,12 +287,12 @@ public class DiagramModelConnection extends Connectable implements IDiagramModel
 
     @Override
     public boolean isNameVisible() {
-        return getFeatures().getBoolean(FEATURE_NAME_VISIBLE, FEATURE_NAME_VISIBLE_DEFAULT);
+        return IFeatures.getFeatureBoolean(this, FEATURE_NAME_VISIBLE, FEATURE_NAME_VISIBLE_DEFAULT);
     }
     
     @Override
     public void setNameVisible(boolean value) {
-        getFeatures().putBoolean(FEATURE_NAME_VISIBLE, value, FEATURE_NAME_VISIBLE_DEFAULT);
+        IFeatures.putFeatureBoolean(this, FEATURE_NAME_VISIBLE, value, FEATURE_NAME_VISIBLE_DEFAULT);
     }
 
     /**
@@ -16,6 +16,7 @@ import com.archimatetool.model.IArchimateFactory;
 import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IBounds;
 import com.archimatetool.model.IDiagramModelObject;
+import com.archimatetool.model.IFeatures;
 import com.archimatetool.model.IFontAttribute;
 import com.archimatetool.model.ILineObject;
 import com.archimatetool.model.ITextAlignment;
@@ -213,62 +214,62 @@ public abstract class DiagramModelObject extends Connectable implements IDiagram
 
     @Override
     public int getLineAlpha() {
-        return getFeatures().getInt(FEATURE_LINE_ALPHA, FEATURE_LINE_ALPHA_DEFAULT);
+        return IFeatures.getFeatureInt(this, FEATURE_LINE_ALPHA, FEATURE_LINE_ALPHA_DEFAULT);
     }
     
     @Override
     public void setLineAlpha(int value) {
-        getFeatures().putInt(FEATURE_LINE_ALPHA, value, FEATURE_LINE_ALPHA_DEFAULT);
+        IFeatures.putFeatureInt(this, FEATURE_LINE_ALPHA, value, FEATURE_LINE_ALPHA_DEFAULT);
     }
 
     @Override
     public int getGradient() {
-        return getFeatures().getInt(FEATURE_GRADIENT, FEATURE_GRADIENT_DEFAULT);
+        return IFeatures.getFeatureInt(this, FEATURE_GRADIENT, FEATURE_GRADIENT_DEFAULT);
     }
     
     @Override
     public void setGradient(int type) {
-        getFeatures().putInt(FEATURE_GRADIENT, type, FEATURE_GRADIENT_DEFAULT);
+        IFeatures.putFeatureInt(this, FEATURE_GRADIENT, type, FEATURE_GRADIENT_DEFAULT);
     }
 
     @Override
     public int getIconVisibleState() {
-        return getFeatures().getInt(FEATURE_ICON_VISIBLE, FEATURE_ICON_VISIBLE_DEFAULT);
+        return IFeatures.getFeatureInt(this, FEATURE_ICON_VISIBLE, FEATURE_ICON_VISIBLE_DEFAULT);
     }
     
     @Override
     public void setIconVisibleState(int value) {
-        getFeatures().putInt(FEATURE_ICON_VISIBLE, value, FEATURE_ICON_VISIBLE_DEFAULT);
+        IFeatures.putFeatureInt(this, FEATURE_ICON_VISIBLE, value, FEATURE_ICON_VISIBLE_DEFAULT);
     }
     
     @Override
     public String getIconColor() {
-        return getFeatures().getString(FEATURE_ICON_COLOR, FEATURE_ICON_COLOR_DEFAULT);
+        return IFeatures.getFeatureString(this, FEATURE_ICON_COLOR, FEATURE_ICON_COLOR_DEFAULT);
     }
     
     @Override
     public void setIconColor(String iconColor) {
-        getFeatures().putString(FEATURE_ICON_COLOR, iconColor, FEATURE_ICON_COLOR_DEFAULT);
+        IFeatures.putFeatureString(this, FEATURE_ICON_COLOR, iconColor, FEATURE_ICON_COLOR_DEFAULT);
     }
     
     @Override
     public boolean getDeriveElementLineColor() {
-        return getFeatures().getBoolean(FEATURE_DERIVE_ELEMENT_LINE_COLOR, FEATURE_DERIVE_ELEMENT_LINE_COLOR_DEFAULT);
+        return IFeatures.getFeatureBoolean(this, FEATURE_DERIVE_ELEMENT_LINE_COLOR, FEATURE_DERIVE_ELEMENT_LINE_COLOR_DEFAULT);
     }
     
     @Override
     public void setDeriveElementLineColor(boolean value) {
-        getFeatures().putBoolean(FEATURE_DERIVE_ELEMENT_LINE_COLOR, value, FEATURE_DERIVE_ELEMENT_LINE_COLOR_DEFAULT);
+        IFeatures.putFeatureBoolean(this, FEATURE_DERIVE_ELEMENT_LINE_COLOR, value, FEATURE_DERIVE_ELEMENT_LINE_COLOR_DEFAULT);
     }
     
     @Override
     public int getLineStyle() {
-        return getFeatures().getInt(FEATURE_LINE_STYLE, FEATURE_LINE_STYLE_DEFAULT);
+        return IFeatures.getFeatureInt(this, FEATURE_LINE_STYLE, FEATURE_LINE_STYLE_DEFAULT);
     }
     
     @Override
     public void setLineStyle(int lineStyle) {
-        getFeatures().putInt(FEATURE_LINE_STYLE, lineStyle, FEATURE_LINE_STYLE_DEFAULT);
+        IFeatures.putFeatureInt(this, FEATURE_LINE_STYLE, lineStyle, FEATURE_LINE_STYLE_DEFAULT);
     }
     
     /**
@@ -9,8 +9,9 @@ import java.util.Objects;
 
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.impl.ENotificationImpl;
-import org.eclipse.emf.ecore.impl.EObjectImpl;
 
 import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IFeature;
@@ -29,7 +30,7 @@ import com.archimatetool.model.IFeature;
  *
  * @generated
  */
-public class Feature extends EObjectImpl implements IFeature {
+public class Feature extends ContentNotifyingEObject implements IFeature {
     /**
      * The default value of the '{@link #getName() <em>Name</em>}' attribute.
      * <!-- begin-user-doc -->
@@ -70,6 +71,16 @@ public class Feature extends EObjectImpl implements IFeature {
      */
     protected String value = VALUE_EDEFAULT;
 
+    /**
+     * A value parsed as a type and the value string it was parsed from
+     */
+    private record ParsedValue(String from, Class<?> type, Object value) {}
+
+    /**
+     * The last parsed value. This is only used if the value string is the same String instance.
+     */
+    private ParsedValue parsedValue;
+
     /**
      * <!-- begin-user-doc -->
      * <!-- end-user-doc -->
@@ -102,12 +113,14 @@ public class Feature extends EObjectImpl implements IFeature {
     /**
      * <!-- begin-user-doc -->
      * <!-- end-user-doc -->
-     * @generated
+     * @generated NOT
      */
     @Override
     public void setName(String newName) {
         String oldName = name;
         name = newName;
+        if (!Objects.equals(oldName, newName))
+            invalidateContainingList();
         if (eNotificationRequired())
             eNotify(new ENotificationImpl(this, Notification.SET, IArchimatePackage.FEATURE__NAME, oldName, name));
     }
@@ -248,6 +261,58 @@ public class Feature extends EObjectImpl implements IFeature {
         return super.equals(obj);
     }
     
+    /**
+     * The name changed so the name index of the FeaturesEList that contains this must be rebuilt
+     */
+    private void invalidateContainingList() {
+        EObject container = eContainer();
+        EReference reference = eContainmentFeature();
+        if(container != null && reference != null && container.eGet(reference, false) instanceof FeaturesEList list) {
+            list.invalidateNameIndex();
+        }
+    }
+
+    /**
+     * @return The value as an int, or defaultValue if it is not an int. The parsed value is cached until the value changes.
+     */
+    int getIntValue(int defaultValue) {
+        Object parsed = getParsedValue(Integer.class);
+        return parsed instanceof Integer i ? i : defaultValue;
+    }
+
+    /**
+     * @return The value as a boolean. The parsed value is cached until the value changes.
+     */
+    boolean getBooleanValue() {
+        return (Boolean)getParsedValue(Boolean.class);
+    }
+
+    private Object getParsedValue(Class<?> type) {
+        String value = this.value;
+        ParsedValue parsed = parsedValue;
+
+        if(parsed == null || parsed.from() != value || parsed.type() != type) {
+            Object result = null;
+
+            if(type == Boolean.class) {
+                result = Boolean.valueOf(value);
+            }
+            else {
+                try {
+                    result = Integer.valueOf(value);
+                }
+                catch(NumberFormatException ex) {
+                    // Cached as null so it isn't parsed again
+                }
+            }
+
+            parsed = new ParsedValue(value, type, result);
+            parsedValue = parsed;
+        }
+
+        return parsed.value();
+    }
+
     /**
      * Don't over-ride this with a custom implementation!
      * This greatly impacts performance in EMF Compare/Merge.
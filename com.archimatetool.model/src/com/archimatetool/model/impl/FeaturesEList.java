@@ -7,8 +7,10 @@ package com.archimatetool.model.impl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -20,13 +22,29 @@ import com.archimatetool.model.IFeature;
 import com.archimatetool.model.IFeaturesEList;
 
 /**
- * Convenience class to set and get IFeature names and values
+ * Convenience class to set and get IFeature names and values.<p>
+ * 
+ * Features are looked up by name with an index that is rebuilt when the list or a feature's name changes,
+ * and int and boolean values are cached in the Feature until its value changes.
  * 
  * @author Phillip Beauvoir
  */
 @SuppressWarnings("nls")
 public class FeaturesEList extends EObjectContainmentEList<IFeature> implements IFeaturesEList {
     
+    /**
+     * Features keyed by name and the value of {@link #nameIndexChanges} when the index was built
+     */
+    private record NameIndex(Map<String, IFeature> features, int changes) {}
+    
+    private volatile NameIndex nameIndex;
+    
+    /**
+     * Incremented when the list or the name of a Feature in it changes.
+     * An index built while this changes is not used again.
+     */
+    private volatile int nameIndexChanges;
+    
     public FeaturesEList(InternalEObject owner, int featureID) {
         super(IFeature.class, owner, featureID);
     }
@@ -99,8 +117,13 @@ public class FeaturesEList extends EObjectContainmentEList<IFeature> implements
 
     @Override
     public int getInt(String name, int defaultValue) {
+        IFeature feature = getFeature(name);
+        
+        if(feature instanceof Feature f) {
+            return f.getIntValue(defaultValue);
+        }
+        
         try {
-            IFeature feature = getFeature(name);
             return feature == null ? defaultValue : Integer.valueOf(feature.getValue());
         }
         catch(NumberFormatException ex) {
@@ -111,6 +134,11 @@ public class FeaturesEList extends EObjectContainmentEList<IFeature> implements
     @Override
     public boolean getBoolean(String name, boolean defaultValue) {
         IFeature feature = getFeature(name);
+        
+        if(feature instanceof Feature f) {
+            return f.getBooleanValue();
+        }
+        
         return feature == null ? defaultValue : Boolean.valueOf(feature.getValue());
     }
 
@@ -135,10 +163,56 @@ public class FeaturesEList extends EObjectContainmentEList<IFeature> implements
     public IFeature getFeature(String name) {
         checkNull(name);
         
-        return stream()
-                .filter(feature -> Objects.equals(feature.getName(), name))
-                .findFirst()
-                .orElse(null);
+        return isEmpty() ? null : getNameIndex().get(name);
+    }
+    
+    /**
+     * If we are checking equality using Feature#equals() then this list contains a feature with the same name
+     */
+    @Override
+    public boolean contains(Object object) {
+        if(useEquals() && object instanceof Feature feature) {
+            return containsName(feature.getName());
+        }
+        
+        return super.contains(object);
+    }
+    
+    /**
+     * @return Features keyed by name. If there are features with the same name the first one is used.
+     */
+    private Map<String, IFeature> getNameIndex() {
+        NameIndex index = nameIndex;
+        int changes = nameIndexChanges;
+        
+        if(index == null || index.changes() != changes) {
+            Map<String, IFeature> features = HashMap.newHashMap(size());
+            for(int i = 0; i < size; i++) {
+                IFeature feature = (IFeature)data[i];
+                features.putIfAbsent(feature.getName(), feature);
+            }
+            
+            index = new NameIndex(features, changes);
+            nameIndex = index;
+        }
+        
+        return index.features();
+    }
+    
+    /**
+     * The name of a Feature in this list changed so rebuild the name index when it's next used
+     */
+    void invalidateNameIndex() {
+        nameIndexChanges++;
+    }
+    
+    /**
+     * The list changed so rebuild the name index when it's next used
+     */
+    @Override
+    protected void didChange() {
+        super.didChange();
+        invalidateNameIndex();
     }
 
     /**
@@ -230,6 +304,6 @@ public class FeaturesEList extends EObjectContainmentEList<IFeature> implements
      * @return true if this FeaturesEList contains a feature with the given name
      */
     private boolean containsName(String name) {
-        return stream().anyMatch(o -> Objects.equals(o.getName(), name));
+        return !isEmpty() && getNameIndex().containsKey(name);
     }
 }
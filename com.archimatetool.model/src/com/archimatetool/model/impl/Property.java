@@ -8,7 +8,6 @@ package com.archimatetool.model.impl;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.impl.ENotificationImpl;
-import org.eclipse.emf.ecore.impl.EObjectImpl;
 
 import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IProperty;
@@ -28,7 +27,7 @@ import com.archimatetool.model.IProperty;
  *
  * @generated
  */
-public class Property extends EObjectImpl implements IProperty {
+public class Property extends ContentNotifyingEObject implements IProperty {
     /**
      * The default value of the '{@link #getKey() <em>Key</em>}' attribute.
      * <!-- begin-user-doc -->
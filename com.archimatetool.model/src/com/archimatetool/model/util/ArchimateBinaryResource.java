@@ -0,0 +1,59 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.model.util;
+
+import java.util.HashMap;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+
+/**
+ * Compact binary Resource for Archi models.<p>
+ *
+ * This is an alternative to the XML based {@link ArchimateResource} for large models.
+ * It uses EMF's binary format which writes a string table for repeated strings, variable length integers
+ * for object and feature IDs, and typed records for each feature value.
+ * The model contents are identical to a model loaded from XML so a model can be saved as XML again with no loss.<p>
+ *
+ * An ArchimateBinaryResource is created by {@link ArchimateResourceFactory} only for the {@link #ARCHIVE_ENTRY_NAME} entry
+ * of an archive file. Any other URI, including a file that happens to have a ".bin" extension, is loaded as XML.
+ *
+ * @author Phillip Beauvoir
+ */
+public class ArchimateBinaryResource extends BinaryResourceImpl {
+
+    /**
+     * Name of the model entry in an archive file when the model is saved in binary format
+     */
+    public static final String ARCHIVE_ENTRY_NAME = "model.bin"; //$NON-NLS-1$
+
+    /**
+     * Size of the buffer used when reading and writing
+     */
+    private static final int BUFFER_CAPACITY = 64 * 1024;
+
+    /**
+     * @param uri the URI of the new resource.
+     */
+    public ArchimateBinaryResource(URI uri) {
+        super(uri);
+
+        getDefaultLoadOptions().put(OPTION_BUFFER_CAPACITY, BUFFER_CAPACITY);
+        getDefaultSaveOptions().put(OPTION_BUFFER_CAPACITY, BUFFER_CAPACITY);
+
+        // Same as ArchimateResource so that objects can be found by ID
+        setIntrinsicIDToEObjectMap(new HashMap<String, EObject>());
+    }
+
+    /**
+     * @param uri The URI to test
+     * @return true if the URI refers to the binary model entry of an archive file
+     */
+    public static boolean isBinaryURI(URI uri) {
+        return uri != null && uri.isArchive() && ARCHIVE_ENTRY_NAME.equals(uri.lastSegment());
+    }
+}
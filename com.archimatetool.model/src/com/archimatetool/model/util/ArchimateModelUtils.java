@@ -19,8 +19,6 @@ import java.util.Set;
 
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.EStructuralFeature.Setting;
-import org.eclipse.emf.ecore.util.EcoreUtil.UsageCrossReferencer;
 
 import com.archimatetool.model.IArchimateConcept;
 import com.archimatetool.model.IArchimateModel;
@@ -125,6 +123,11 @@ public class ArchimateModelUtils {
      * @return An array of all valid relationship class types between sourceElement and targetElement
      */
     public static EClass[] getValidRelationships(IArchimateConcept sourceConcept, IArchimateConcept targetConcept) {
+        // If there are no Junctions this is the same as for the class types
+        if(!(sourceConcept instanceof IJunction) && !(targetConcept instanceof IJunction)) {
+            return hasDirectRelationship(sourceConcept, targetConcept) ? new EClass[0] : getValidRelationships(sourceConcept.eClass(), targetConcept.eClass());
+        }
+        
         List<EClass> list = new ArrayList<EClass>();
         
         for(EClass eClass : getRelationsClasses()) {
@@ -143,15 +146,7 @@ public class ArchimateModelUtils {
      * @return All valid relationship types between sourceType and targetType
      */
     public static EClass[] getValidRelationships(EClass sourceType, EClass targetType) {
-        List<EClass> list = new ArrayList<EClass>();
-        
-        for(EClass eClass : getRelationsClasses()) {
-            if(isValidRelationship(sourceType, targetType, eClass)) {
-                list.add(eClass); 
-            }
-        }
-        
-        return list.toArray(new EClass[list.size()]);
+        return RelationshipsMatrix.INSTANCE.getValidRelationships(sourceType, targetType).clone();
     }
     
     /**
@@ -467,49 +462,23 @@ public class ArchimateModelUtils {
     /**
      * @return A list of all references of the given Profile in the model.
      *         If profile is null or is not contained in a model then an empty list is returned
-     *         This is a slow process if this is called more than once
+     * @see ProfileUsageIndex
      */
     public static List<IProfiles> findProfileUsage(IProfile profile) {
-        List<IProfiles> profiles = new ArrayList<>();
-        
         if(profile != null && profile.getArchimateModel() != null) {
-            for(Setting setting : UsageCrossReferencer.find(profile, profile.getArchimateModel())) {
-                profiles.add((IProfiles)setting.getEObject());
-            }
+            return ProfileUsageIndex.getIndex(profile.getArchimateModel()).getUsage(profile);
         }
         
-        return profiles;
+        return new ArrayList<>();
     }
     
     /**
      * @return A map of all references of all Profiles in the given model.
-     *         This method is many times faster than calling findProfileUsage(IProfile) repeatedly
+     *         Profiles that are not used are not included
+     * @see ProfileUsageIndex
      */
     public static Map<IProfile, List<IProfiles>> findProfilesUsage(IArchimateModel model) {
-        Map<IProfile, List<IProfiles>> map = new HashMap<>();
-        
-        // Iterate through all model contents
-        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
-            EObject eObject = iter.next();
-            
-            // This is a concept potentially containing profile references
-            if(eObject instanceof IProfiles) {
-                // Iterate through the profiles
-                for(IProfile profile : ((IProfiles)eObject).getProfiles()) {
-                    // Get the list from the map
-                    List<IProfiles> list = map.get(profile);
-                    // Create and add a new list if needed
-                    if(list == null) {
-                        list = new ArrayList<>();
-                        map.put(profile, list);
-                    }
-                    // Add the concept to the list
-                    list.add((IProfiles)eObject);
-                }
-            }
-        }
-        
-        return map;
+        return ProfileUsageIndex.getIndex(model).getUsages();
     }
     
     /**
@@ -5,9 +5,21 @@
  */
 package com.archimatetool.model.util;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.ExtendedMetaData;
+import org.eclipse.emf.ecore.xmi.XMLHelper;
+import org.eclipse.emf.ecore.xmi.impl.XMLHelperImpl;
 import org.eclipse.emf.ecore.xmi.impl.XMLResourceImpl;
 
+import com.archimatetool.model.util.ArchimateStAXLoader.UnsupportedContentException;
+
 /**
  * <!-- begin-user-doc -->
  * The <b>Resource </b> associated with the package.
@@ -16,6 +28,36 @@ import org.eclipse.emf.ecore.xmi.impl.XMLResourceImpl;
  * @generated
  */
 public class ArchimateResource extends XMLResourceImpl {
+    
+    /**
+     * Load option to load the model with the streaming {@link ArchimateStAXLoader}. Value is a Boolean.
+     * If the StAX loader can't load the content exactly as the default loader would then the default loader is used.
+     */
+    public static final String OPTION_USE_STAX_LOADER = "USE_STAX_LOADER"; //$NON-NLS-1$
+    
+    /**
+     * Load option to load the children of diagram models when they are first accessed. Value is a Boolean.
+     * This uses the StAX loader. See {@link LazyDiagramContents}.
+     */
+    public static final String OPTION_LAZY_DIAGRAM_CONTENTS = "LAZY_DIAGRAM_CONTENTS"; //$NON-NLS-1$
+    
+    /**
+     * Load option to record the time taken to open and parse the file. Value is a {@link PhaseTimings}.
+     * "open" is the time to open the file (and the archive if it is one) and "parse" is the time to read the XML
+     * including resolving references. If the StAX loader is used resolving references is recorded as "resolveReferences".
+     */
+    public static final String OPTION_PHASE_TIMINGS = "PHASE_TIMINGS"; //$NON-NLS-1$
+    
+    /**
+     * Whether the current load is using the StAX loader
+     */
+    private boolean usingStAXLoader;
+    
+    /**
+     * Start time of the current load if phase timings are recorded
+     */
+    private long loadStartTime;
+    
     /**
      * Creates an instance of the resource.
      * <!-- begin-user-doc -->
@@ -26,5 +68,92 @@ public class ArchimateResource extends XMLResourceImpl {
     public ArchimateResource(URI uri) {
         super(uri);
     }
+    
+    @Override
+    public void load(Map<?, ?> options) throws IOException {
+        loadStartTime = PhaseTimings.now();
+        
+        if(!isLoaded() && (Boolean.TRUE.equals(getLoadOption(options, OPTION_USE_STAX_LOADER))
+                || Boolean.TRUE.equals(getLoadOption(options, OPTION_LAZY_DIAGRAM_CONTENTS)))) {
+            usingStAXLoader = true;
+            
+            try {
+                super.load(options);
+                return;
+            }
+            catch(UnsupportedContentException ex) {
+                // Unload any partially loaded content and load it again with the default loader
+                unload();
+                if(getIntrinsicIDToEObjectMap() != null) {
+                    getIntrinsicIDToEObjectMap().clear();
+                }
+                loadStartTime = PhaseTimings.now();
+            }
+            finally {
+                usingStAXLoader = false;
+            }
+        }
+        
+        super.load(options);
+    }
+    
+    @Override
+    public void doLoad(InputStream inputStream, Map<?, ?> options) throws IOException {
+        PhaseTimings timings = getLoadOption(options, OPTION_PHASE_TIMINGS) instanceof PhaseTimings t ? t : null;
+        if(timings != null) {
+            timings.add("open", loadStartTime); //$NON-NLS-1$
+        }
+        
+        if(usingStAXLoader && getLoadOption(options, OPTION_EXTENDED_META_DATA) instanceof ExtendedMetaData extendedMetaData) {
+            boolean lazyDiagramContents = Boolean.TRUE.equals(getLoadOption(options, OPTION_LAZY_DIAGRAM_CONTENTS));
+            ArchimateStAXLoader loader = new ArchimateStAXLoader(this, extendedMetaData, lazyDiagramContents);
+            loader.setPhaseTimings(timings);
+            loader.load(inputStream);
+        }
+        else {
+            long startTime = PhaseTimings.now();
+            super.doLoad(inputStream, options);
+            if(timings != null) {
+                timings.add("parse", startTime); //$NON-NLS-1$
+            }
+        }
+    }
+    
+    @Override
+    public void attached(EObject eObject) {
+        // Don't load unloaded diagram model children just to register their IDs. They are registered when loaded.
+        LazyDiagramContents.runWithoutLoading(() -> super.attached(eObject));
+    }
+    
+    @Override
+    public void detached(EObject eObject) {
+        LazyDiagramContents.runWithoutLoading(() -> super.detached(eObject));
+    }
+    
+    @Override
+    protected XMLHelper createXMLHelper() {
+        return new XMLHelperImpl(this) {
+            @Override
+            public void setValue(EObject object, EStructuralFeature feature, Object value, int position) {
+                // De-duplicate repeated strings as they are loaded
+                if(value instanceof String s && isPooledFeature(feature)) {
+                    value = StringPool.INSTANCE.intern(s);
+                }
+                super.setValue(object, feature, value, position);
+            }
+        };
+    }
+    
+    /**
+     * @return true if String values of feature should be de-duplicated with the {@link StringPool} when loading.
+     * IDs are unique so are not pooled.
+     */
+    static boolean isPooledFeature(EStructuralFeature feature) {
+        return feature instanceof EAttribute eAttribute && !eAttribute.isID() && eAttribute.getEAttributeType().getInstanceClass() == String.class;
+    }
+    
+    private Object getLoadOption(Map<?, ?> options, String key) {
+        return options != null && options.containsKey(key) ? options.get(key) : getDefaultLoadOptions().get(key);
+    }
 
 } //ArchimateResource
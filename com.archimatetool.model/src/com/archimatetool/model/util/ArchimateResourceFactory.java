@@ -28,6 +28,18 @@ import org.eclipse.emf.ecore.xmi.XMLResource;
  */
 public class ArchimateResourceFactory extends ResourceFactoryImpl {
     
+    /**
+     * Whether to load models with the streaming StAX loader.
+     * Set with the system property "com.archimatetool.model.staxLoader=true"
+     */
+    private static final boolean USE_STAX_LOADER = Boolean.getBoolean("com.archimatetool.model.staxLoader"); //$NON-NLS-1$
+    
+    /**
+     * Whether to load the children of diagram models when they are first accessed.
+     * Set with the system property "com.archimatetool.model.lazyDiagrams=true"
+     */
+    private static final boolean LAZY_DIAGRAM_CONTENTS = Boolean.getBoolean("com.archimatetool.model.lazyDiagrams"); //$NON-NLS-1$
+    
     /**
      * Creates an instance of the resource factory.
      * <!-- begin-user-doc -->
@@ -51,7 +63,7 @@ public class ArchimateResourceFactory extends ResourceFactoryImpl {
      *          as registered in plugin.xml
      */
     public static Resource createNewResource(URI uri) {
-        // This will return an ArchimateResource as registered in plugin.xml
+        // This will return an ArchimateResource as registered in plugin.xml (or an ArchimateBinaryResource for the binary format)
         ResourceSet resourceSet = createResourceSet();
         return resourceSet.createResource(uri);
     }
@@ -80,6 +92,11 @@ public class ArchimateResourceFactory extends ResourceFactoryImpl {
      */
     @Override
     public Resource createResource(URI uri) {
+        // Binary format
+        if(ArchimateBinaryResource.isBinaryURI(uri)) {
+            return new ArchimateBinaryResource(uri);
+        }
+        
         ArchimateResource resource = new ArchimateResource(uri);
         
         // Ensure we have ExtendedMetaData for both Saving and Loading
@@ -92,6 +109,8 @@ public class ArchimateResourceFactory extends ResourceFactoryImpl {
         resource.getDefaultLoadOptions().put(XMLResource.OPTION_ENCODING, "UTF-8"); //$NON-NLS-1$
         
         resource.getDefaultLoadOptions().put(XMLResource.OPTION_DEFER_IDREF_RESOLUTION, Boolean.TRUE);
+        resource.getDefaultLoadOptions().put(ArchimateResource.OPTION_USE_STAX_LOADER, USE_STAX_LOADER);
+        resource.getDefaultLoadOptions().put(ArchimateResource.OPTION_LAZY_DIAGRAM_CONTENTS, LAZY_DIAGRAM_CONTENTS);
         resource.setIntrinsicIDToEObjectMap(new HashMap<String, EObject>());
         
         // Don't allow loading an unregistered URI in case of exploits
@@ -0,0 +1,766 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.model.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.stream.IntStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.ExtendedMetaData;
+import org.eclipse.emf.ecore.util.InternalEList;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.impl.DiagramModel;
+
+/**
+ * Streaming loader for model XML files.<p>
+ *
+ * Model objects are created directly from a StAX reader. Element and attribute names are resolved to features
+ * using the Resource's {@link ExtendedMetaData} so that legacy type and attribute names are converted by
+ * {@link ConverterExtendedMetadata} in the same way as the default SAX based loader.<p>
+ *
+ * IDREF attributes are collected while parsing and resolved at the end against an ID table that is sized to the
+ * number of objects with an ID. Look ups are done in parallel and the references are then set in document order.<p>
+ *
+ * Anything that the default loader would report as an error or warning, or would load in a way that this loader does not,
+ * throws an {@link UnsupportedContentException}. The caller should then load the content with the default loader so that
+ * the resulting model and any diagnostics are always the same as before.<p>
+ *
+ * If lazy diagram contents are enabled the children of each Diagram Model are validated and copied to a compact XML fragment
+ * instead of being created. These are created from the fragment by {@link LazyDiagramContents} when they are first accessed.
+ *
+ * @author Phillip Beauvoir
+ */
+@SuppressWarnings("nls")
+class ArchimateStAXLoader {
+
+    /**
+     * Thrown if the content can not be loaded by this loader
+     */
+    static class UnsupportedContentException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedContentException(String message) {
+            super(message);
+        }
+
+        UnsupportedContentException(Throwable cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * Number of references above which they are looked up in parallel
+     */
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    /**
+     * A feature and its feature ID in an EClass
+     */
+    private record FeatureInfo(EStructuralFeature feature, int featureID) {}
+
+    /**
+     * An IDREF(S) value to be resolved after parsing
+     */
+    private record Reference(EObject eObject, EReference eReference, String[] ids) {}
+
+    /**
+     * The captured children of a Diagram Model
+     */
+    private static class LazyCapture {
+        final DiagramModel diagramModel;
+        final StringBuilder xml = new StringBuilder();
+
+        // IDs of captured objects and their types
+        final Map<String, EClass> ids = new HashMap<>();
+
+        // Captured IDREF values. The Reference's eObject is null.
+        final List<Reference> references = new ArrayList<>();
+
+        LazyCapture(DiagramModel diagramModel, Map<String, String> namespaces) {
+            this.diagramModel = diagramModel;
+
+            xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?><children");
+            for(Map.Entry<String, String> entry : namespaces.entrySet()) {
+                appendNamespace(xml, entry.getKey(), entry.getValue());
+            }
+            xml.append('>');
+        }
+
+        byte[] finish() {
+            xml.append("</children>");
+            return xml.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private final XMLResource resource;
+    private final ExtendedMetaData extendedMetaData;
+    private final EPackage.Registry packageRegistry;
+
+    // Cache of resolved features keyed by EClass then element or attribute name
+    private final Map<EClass, Map<String, FeatureInfo>> elementFeatures = new HashMap<>();
+    private final Map<EClass, Map<String, FeatureInfo>> attributeFeatures = new HashMap<>();
+
+    // Objects that have an ID attribute
+    private final List<EObject> identifiedObjects = new ArrayList<>();
+
+    // IDREF values to resolve
+    private final List<Reference> references = new ArrayList<>();
+
+    // Whether to capture the children of Diagram Models instead of creating them
+    private final boolean lazyDiagramContents;
+
+    // Namespaces declared on the root element
+    private final Map<String, String> rootNamespaces = new LinkedHashMap<>();
+
+    // Diagram Model children can only be captured if all prefixes in scope are declared on the root element
+    private boolean namespacesOnRoot = true;
+
+    // Captured Diagram Model children
+    private final List<LazyCapture> lazyCaptures = new ArrayList<>();
+
+    // Phase timings to record, may be null
+    private PhaseTimings timings;
+
+    ArchimateStAXLoader(XMLResource resource, ExtendedMetaData extendedMetaData) {
+        this(resource, extendedMetaData, false);
+    }
+
+    ArchimateStAXLoader(XMLResource resource, ExtendedMetaData extendedMetaData, boolean lazyDiagramContents) {
+        this.resource = resource;
+        this.extendedMetaData = extendedMetaData;
+        this.lazyDiagramContents = lazyDiagramContents;
+        packageRegistry = resource.getResourceSet() != null ? resource.getResourceSet().getPackageRegistry() : EPackage.Registry.INSTANCE;
+    }
+
+    /**
+     * @param timings If not null record the time taken to parse the XML and resolve references
+     */
+    void setPhaseTimings(PhaseTimings timings) {
+        this.timings = timings;
+    }
+
+    /**
+     * Load the model from the input stream into the Resource
+     * @param in The input stream
+     * @throws IOException if the content can't be loaded by this loader
+     */
+    void load(InputStream in) throws IOException {
+        XMLStreamReader reader = null;
+        long startTime = PhaseTimings.now();
+
+        try {
+            reader = createInputFactory().createXMLStreamReader(in);
+
+            if(reader.getVersion() != null) {
+                resource.setXMLVersion(reader.getVersion());
+            }
+            if(reader.getCharacterEncodingScheme() != null) {
+                resource.setEncoding(reader.getCharacterEncodingScheme());
+            }
+
+            EObject root = null;
+
+            while(reader.hasNext()) {
+                switch(reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        if(root != null) {
+                            throw new UnsupportedContentException("More than one root element");
+                        }
+                        for(int i = 0; i < reader.getNamespaceCount(); i++) {
+                            String prefix = reader.getNamespacePrefix(i);
+                            rootNamespaces.put(prefix == null ? "" : prefix, reader.getNamespaceURI(i));
+                        }
+                        root = readObject(reader, getRootType(reader), true);
+                    }
+                    case XMLStreamConstants.COMMENT, XMLStreamConstants.PROCESSING_INSTRUCTION, XMLStreamConstants.SPACE, XMLStreamConstants.END_DOCUMENT -> {
+                    }
+                    case XMLStreamConstants.CHARACTERS -> checkWhiteSpace(reader);
+                    default -> throw new UnsupportedContentException("Unsupported XML event: " + reader.getEventType());
+                }
+            }
+
+            if(root == null) {
+                throw new UnsupportedContentException("No root element");
+            }
+
+            resource.getContents().add(root);
+        }
+        catch(XMLStreamException | RuntimeException ex) {
+            throw new UnsupportedContentException(ex);
+        }
+        finally {
+            if(reader != null) {
+                try {
+                    reader.close();
+                }
+                catch(XMLStreamException ex) {
+                }
+            }
+        }
+
+        if(timings != null) {
+            timings.add("parse", startTime);
+            startTime = PhaseTimings.now();
+        }
+
+        try {
+            Map<String, EObject> idTable = resolveReferences(Map.of());
+            resolveLazyCaptures(idTable);
+        }
+        catch(RuntimeException ex) {
+            throw new UnsupportedContentException(ex);
+        }
+
+        if(timings != null) {
+            timings.add("resolveReferences", startTime);
+        }
+    }
+
+    /**
+     * Create the children of a Diagram Model from contents captured when the model was loaded
+     * @param diagramModel The Diagram Model
+     * @param content The captured XML fragment
+     * @param externalObjects Objects outside of the contents that are referenced by the contents keyed by ID
+     * @throws IOException if the contents can't be loaded
+     */
+    void loadDiagramContents(IDiagramModel diagramModel, byte[] content, Map<String, EObject> externalObjects) throws IOException {
+        XMLStreamReader reader = null;
+
+        try {
+            reader = createInputFactory().createXMLStreamReader(new ByteArrayInputStream(content));
+
+            // Wrapper element
+            reader.nextTag();
+
+            while(reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                readFeature(reader, (InternalEObject)diagramModel, diagramModel.eClass());
+            }
+
+            resolveReferences(externalObjects);
+        }
+        catch(XMLStreamException | RuntimeException ex) {
+            throw new IOException(ex);
+        }
+        finally {
+            if(reader != null) {
+                try {
+                    reader.close();
+                }
+                catch(XMLStreamException ex) {
+                }
+            }
+        }
+    }
+
+    private XMLInputFactory createInputFactory() {
+        // Use the JDK's implementation
+        XMLInputFactory factory = XMLInputFactory.newDefaultFactory();
+
+        // Don't allow DTD loading in case of XSS exploits
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        return factory;
+    }
+
+    /**
+     * Create an object from the current start element and read its attributes and child elements up to its end element
+     */
+    private EObject readObject(XMLStreamReader reader, EClass eClass, boolean isRoot) throws XMLStreamException, IOException {
+        InternalEObject eObject = (InternalEObject)eClass.getEPackage().getEFactoryInstance().create(eClass);
+
+        if(!isRoot && reader.getNamespaceCount() != 0) {
+            namespacesOnRoot = false;
+        }
+
+        // Attributes
+        for(int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = emptyToNull(reader.getAttributeNamespace(i));
+            String name = reader.getAttributeLocalName(i);
+
+            if(ExtendedMetaData.XSI_URI.equals(namespace)) {
+                // xsi:type has already been used to create the object. The default loader ignores schema locations.
+                if("type".equals(name) || "schemaLocation".equals(name) || "noNamespaceSchemaLocation".equals(name)) {
+                    continue;
+                }
+                throw new UnsupportedContentException("Unsupported attribute: " + name);
+            }
+
+            FeatureInfo info = getFeature(eClass, namespace, name, false);
+            String value = reader.getAttributeValue(i);
+
+            if(info.feature() instanceof EAttribute eAttribute && !eAttribute.isMany()) {
+                eObject.eSet(info.featureID(), createFromString(eAttribute, value));
+            }
+            else if(info.feature() instanceof EReference eReference && !eReference.isContainment()) {
+                references.add(new Reference(eObject, eReference, splitIDs(value)));
+            }
+            else {
+                throw new UnsupportedContentException("Unsupported attribute: " + name);
+            }
+        }
+
+        if(eClass.getEIDAttribute() != null) {
+            identifiedObjects.add(eObject);
+        }
+
+        // Child elements
+        while(true) {
+            switch(reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> readFeature(reader, eObject, eClass);
+                case XMLStreamConstants.END_ELEMENT -> {
+                    return eObject;
+                }
+                case XMLStreamConstants.COMMENT, XMLStreamConstants.PROCESSING_INSTRUCTION, XMLStreamConstants.SPACE -> {
+                }
+                case XMLStreamConstants.CHARACTERS -> checkWhiteSpace(reader);
+                default -> throw new UnsupportedContentException("Unsupported XML event: " + reader.getEventType());
+            }
+        }
+    }
+
+    /**
+     * Read a child element of eObject as either a text attribute value or a contained object
+     */
+    @SuppressWarnings("unchecked")
+    private void readFeature(XMLStreamReader reader, InternalEObject eObject, EClass eClass) throws XMLStreamException, IOException {
+        FeatureInfo info = getFeature(eClass, emptyToNull(reader.getNamespaceURI()), reader.getLocalName(), true);
+
+        if(info.feature() instanceof EAttribute eAttribute) {
+            if(reader.getAttributeCount() != 0) {
+                throw new UnsupportedContentException("Unsupported attributes on element: " + reader.getLocalName());
+            }
+
+            Object value = createFromString(eAttribute, reader.getElementText());
+
+            if(eAttribute.isMany()) {
+                ((List<Object>)eObject.eGet(info.featureID(), false, true)).add(value);
+            }
+            else {
+                eObject.eSet(info.featureID(), value);
+            }
+        }
+        else if(info.feature() instanceof EReference eReference && eReference.isContainment()) {
+            if(isLazyFeature(eObject, eReference)) {
+                captureObject(reader, getType(reader, eReference), getLazyCapture((DiagramModel)eObject));
+                return;
+            }
+
+            EObject child = readObject(reader, getType(reader, eReference), false);
+
+            if(eReference.isMany()) {
+                // The child is a new object so it can't already be in the list
+                ((InternalEList<EObject>)eObject.eGet(info.featureID(), false, true)).addUnique(child);
+            }
+            else {
+                eObject.eSet(info.featureID(), child);
+            }
+        }
+        else {
+            throw new UnsupportedContentException("Unsupported element: " + reader.getLocalName());
+        }
+    }
+
+    private boolean isLazyFeature(EObject eObject, EReference eReference) {
+        return lazyDiagramContents && namespacesOnRoot && eReference == IArchimatePackage.Literals.DIAGRAM_MODEL__CHILDREN
+                && eObject instanceof DiagramModel;
+    }
+
+    private LazyCapture getLazyCapture(DiagramModel diagramModel) {
+        // A Diagram Model's children are all read before the next Diagram Model
+        LazyCapture capture = lazyCaptures.isEmpty() ? null : lazyCaptures.get(lazyCaptures.size() - 1);
+
+        if(capture == null || capture.diagramModel != diagramModel) {
+            capture = new LazyCapture(diagramModel, rootNamespaces);
+            lazyCaptures.add(capture);
+        }
+
+        return capture;
+    }
+
+    /**
+     * Validate the current start element and its contents as readObject() would and copy them to the capture's XML
+     */
+    private void captureObject(XMLStreamReader reader, EClass eClass, LazyCapture capture) throws XMLStreamException, IOException {
+        StringBuilder xml = capture.xml;
+        String qName = appendStartElement(reader, xml);
+
+        // Attributes
+        for(int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = emptyToNull(reader.getAttributeNamespace(i));
+            String name = reader.getAttributeLocalName(i);
+            String value = reader.getAttributeValue(i);
+
+            if(ExtendedMetaData.XSI_URI.equals(namespace)) {
+                if(!("type".equals(name) || "schemaLocation".equals(name) || "noNamespaceSchemaLocation".equals(name))) {
+                    throw new UnsupportedContentException("Unsupported attribute: " + name);
+                }
+            }
+            else {
+                FeatureInfo info = getFeature(eClass, namespace, name, false);
+
+                if(info.feature() instanceof EAttribute eAttribute && !eAttribute.isMany()) {
+                    createFromString(eAttribute, value);
+                    if(eAttribute == eClass.getEIDAttribute() && capture.ids.put(value, eClass) != null) {
+                        throw new UnsupportedContentException("Duplicate ID: " + value);
+                    }
+                }
+                else if(info.feature() instanceof EReference eReference && !eReference.isContainment()) {
+                    capture.references.add(new Reference(null, eReference, splitIDs(value)));
+                }
+                else {
+                    throw new UnsupportedContentException("Unsupported attribute: " + name);
+                }
+            }
+
+            String prefix = emptyToNull(reader.getAttributePrefix(i));
+            xml.append(' ').append(prefix == null ? name : prefix + ":" + name).append("=\"");
+            appendEscaped(xml, value, true);
+            xml.append('"');
+        }
+
+        xml.append('>');
+
+        // Child elements
+        while(true) {
+            switch(reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> captureFeature(reader, eClass, capture);
+                case XMLStreamConstants.END_ELEMENT -> {
+                    xml.append("</").append(qName).append('>');
+                    return;
+                }
+                case XMLStreamConstants.COMMENT, XMLStreamConstants.PROCESSING_INSTRUCTION, XMLStreamConstants.SPACE -> {
+                }
+                case XMLStreamConstants.CHARACTERS -> checkWhiteSpace(reader);
+                default -> throw new UnsupportedContentException("Unsupported XML event: " + reader.getEventType());
+            }
+        }
+    }
+
+    /**
+     * Validate a child element as readFeature() would and copy it to the capture's XML
+     */
+    private void captureFeature(XMLStreamReader reader, EClass eClass, LazyCapture capture) throws XMLStreamException, IOException {
+        FeatureInfo info = getFeature(eClass, emptyToNull(reader.getNamespaceURI()), reader.getLocalName(), true);
+
+        if(info.feature() instanceof EAttribute eAttribute) {
+            if(reader.getAttributeCount() != 0) {
+                throw new UnsupportedContentException("Unsupported attributes on element: " + reader.getLocalName());
+            }
+
+            String qName = appendStartElement(reader, capture.xml);
+            String text = reader.getElementText();
+            createFromString(eAttribute, text);
+            capture.xml.append('>');
+            appendEscaped(capture.xml, text, false);
+            capture.xml.append("</").append(qName).append('>');
+        }
+        else if(info.feature() instanceof EReference eReference && eReference.isContainment()) {
+            captureObject(reader, getType(reader, eReference), capture);
+        }
+        else {
+            throw new UnsupportedContentException("Unsupported element: " + reader.getLocalName());
+        }
+    }
+
+    /**
+     * Append the start of the current element and its namespace declarations but not its attributes or closing bracket
+     * @return The element's qualified name
+     */
+    private String appendStartElement(XMLStreamReader reader, StringBuilder xml) {
+        String prefix = emptyToNull(reader.getPrefix());
+        String qName = prefix == null ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+
+        xml.append('<').append(qName);
+
+        for(int i = 0; i < reader.getNamespaceCount(); i++) {
+            appendNamespace(xml, reader.getNamespacePrefix(i), reader.getNamespaceURI(i));
+        }
+
+        return qName;
+    }
+
+    private static void appendNamespace(StringBuilder xml, String prefix, String uri) {
+        xml.append(prefix == null || prefix.isEmpty() ? " xmlns" : " xmlns:" + prefix).append("=\"");
+        appendEscaped(xml, uri, true);
+        xml.append('"');
+    }
+
+    /**
+     * Append text escaped so that it is read back exactly. Line breaks and tabs are escaped in attribute values
+     * and carriage returns in text so that they are not normalised by the parser.
+     */
+    private static void appendEscaped(StringBuilder xml, String s, boolean isAttribute) {
+        for(int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch(c) {
+                case '&' -> xml.append("&amp;");
+                case '<' -> xml.append("&lt;");
+                case '>' -> xml.append("&gt;");
+                case '"' -> xml.append(isAttribute ? "&quot;" : "\"");
+                case '\r' -> xml.append("&#xD;");
+                case '\n' -> xml.append(isAttribute ? "&#xA;" : "\n");
+                case '\t' -> xml.append(isAttribute ? "&#x9;" : "\t");
+                default -> xml.append(c);
+            }
+        }
+    }
+
+    /**
+     * @return The EClass for the root element
+     */
+    private EClass getRootType(XMLStreamReader reader) throws IOException {
+        String xsiType = reader.getAttributeValue(ExtendedMetaData.XSI_URI, "type");
+        EClass eClass = xsiType != null ? getXSIType(reader, xsiType) : getType(reader.getNamespaceURI(), reader.getLocalName());
+
+        if(eClass.isAbstract()) {
+            throw new UnsupportedContentException("Abstract root type: " + eClass.getName());
+        }
+
+        return eClass;
+    }
+
+    /**
+     * @return The EClass for a contained object from its xsi:type or the reference's type
+     */
+    private EClass getType(XMLStreamReader reader, EReference eReference) throws IOException {
+        String xsiType = reader.getAttributeValue(ExtendedMetaData.XSI_URI, "type");
+        EClass referenceType = eReference.getEReferenceType();
+        EClass eClass = xsiType != null ? getXSIType(reader, xsiType) : referenceType;
+
+        if(eClass.isAbstract() || (referenceType != EcorePackage.Literals.EOBJECT && !referenceType.isSuperTypeOf(eClass))) {
+            throw new UnsupportedContentException("Unsupported type " + eClass.getName() + " for " + eReference.getName());
+        }
+
+        return eClass;
+    }
+
+    private EClass getXSIType(XMLStreamReader reader, String xsiType) throws IOException {
+        int index = xsiType.indexOf(':');
+        String prefix = index == -1 ? "" : xsiType.substring(0, index);
+        return getType(reader.getNamespaceURI(prefix), xsiType.substring(index + 1));
+    }
+
+    private EClass getType(String namespace, String typeName) throws IOException {
+        EPackage ePackage = namespace != null ? packageRegistry.getEPackage(namespace) : null;
+        if(ePackage == null) {
+            throw new UnsupportedContentException("Package not found: " + namespace);
+        }
+
+        // Legacy type names are converted here
+        EClassifier eClassifier = extendedMetaData.getType(ePackage, typeName);
+        if(!(eClassifier instanceof EClass eClass)) {
+            throw new UnsupportedContentException("Class not found: " + typeName);
+        }
+
+        return eClass;
+    }
+
+    /**
+     * @return The feature of eClass for an element or attribute name
+     */
+    private FeatureInfo getFeature(EClass eClass, String namespace, String name, boolean isElement) throws IOException {
+        Map<String, FeatureInfo> features = (isElement ? elementFeatures : attributeFeatures).computeIfAbsent(eClass, c -> new HashMap<>());
+
+        // Cache key includes the namespace only if there is one
+        String key = namespace == null ? name : namespace + "#" + name;
+
+        FeatureInfo info = features.get(key);
+        if(info == null) {
+            // Legacy attribute names are converted here
+            EStructuralFeature feature = isElement ? extendedMetaData.getElement(eClass, namespace, name) : extendedMetaData.getAttribute(eClass, namespace, name);
+
+            // A feature with no extended metadata is matched on its name
+            if(feature == null && namespace == null) {
+                feature = eClass.getEStructuralFeature(name);
+                if(feature != null && extendedMetaData.getFeatureKind(feature) != ExtendedMetaData.UNSPECIFIED_FEATURE) {
+                    feature = null;
+                }
+            }
+
+            if(feature == null || !feature.isChangeable() || feature.isDerived()) {
+                throw new UnsupportedContentException("Feature not found: " + name);
+            }
+
+            info = new FeatureInfo(feature, eClass.getFeatureID(feature));
+            features.put(key, info);
+        }
+
+        return info;
+    }
+
+    private Object createFromString(EAttribute eAttribute, String value) {
+        if(ArchimateResource.isPooledFeature(eAttribute)) {
+            return StringPool.INSTANCE.intern(value);
+        }
+        return EcoreUtil.createFromString(eAttribute.getEAttributeType(), value);
+    }
+
+    /**
+     * Resolve IDREFs against the ID table and set the references in document order
+     * @param externalObjects Objects that were not read by this loader that can be referenced, keyed by ID
+     * @return The ID table
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, EObject> resolveReferences(Map<String, EObject> externalObjects) throws IOException {
+        Map<String, EObject> idTable = HashMap.newHashMap(identifiedObjects.size());
+
+        for(EObject eObject : identifiedObjects) {
+            String id = EcoreUtil.getID(eObject);
+            if(id != null && idTable.putIfAbsent(id, eObject) != null) {
+                throw new UnsupportedContentException("Duplicate ID: " + id);
+            }
+        }
+
+        // Look up the referenced objects. The ID table is not modified here so it is safe to read it concurrently.
+        EObject[][] resolved = new EObject[references.size()][];
+
+        IntStream range = IntStream.range(0, references.size());
+        if(references.size() > PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+
+        range.forEach(i -> {
+            String[] ids = references.get(i).ids();
+            EObject[] targets = new EObject[ids.length];
+            for(int j = 0; j < ids.length; j++) {
+                EObject target = idTable.get(ids[j]);
+                targets[j] = target != null ? target : externalObjects.get(ids[j]);
+            }
+            resolved[i] = targets;
+        });
+
+        // Set them. This has to be done in sequence as setting some references updates the referenced object.
+        for(int i = 0; i < resolved.length; i++) {
+            Reference reference = references.get(i);
+            EReference eReference = reference.eReference();
+            EObject[] targets = resolved[i];
+
+            for(int j = 0; j < targets.length; j++) {
+                if(targets[j] == null || !eReference.getEReferenceType().isInstance(targets[j])) {
+                    throw new UnsupportedContentException("Unresolved reference: " + reference.ids()[j]);
+                }
+            }
+
+            if(eReference.isMany()) {
+                List<EObject> list = (List<EObject>)reference.eObject().eGet(eReference);
+                for(EObject target : targets) {
+                    if(list.contains(target)) {
+                        throw new UnsupportedContentException("Duplicate reference: " + EcoreUtil.getID(target));
+                    }
+                    list.add(target);
+                }
+            }
+            else if(targets.length == 1) {
+                reference.eObject().eSet(eReference, targets[0]);
+            }
+            else {
+                throw new UnsupportedContentException("Unsupported reference value for " + eReference.getName());
+            }
+        }
+
+        return idTable;
+    }
+
+    /**
+     * Check that the captured Diagram Model children can be loaded later and set them on their Diagram Models
+     */
+    private void resolveLazyCaptures(Map<String, EObject> idTable) throws IOException {
+        Set<String> lazyIDs = new HashSet<>();
+
+        for(LazyCapture capture : lazyCaptures) {
+            for(String id : capture.ids.keySet()) {
+                if(idTable.containsKey(id) || !lazyIDs.add(id)) {
+                    throw new UnsupportedContentException("Duplicate ID: " + id);
+                }
+            }
+        }
+
+        for(LazyCapture capture : lazyCaptures) {
+            Map<String, EObject> externalObjects = new HashMap<>();
+
+            // Captured objects can reference other captured objects in the same Diagram Model or objects that have been loaded
+            for(Reference reference : capture.references) {
+                EReference eReference = reference.eReference();
+                String[] ids = reference.ids();
+
+                if(!eReference.isMany() && ids.length != 1) {
+                    throw new UnsupportedContentException("Unsupported reference value for " + eReference.getName());
+                }
+
+                if(eReference.isMany() && new HashSet<>(List.of(ids)).size() != ids.length) {
+                    throw new UnsupportedContentException("Duplicate reference for " + eReference.getName());
+                }
+
+                for(String id : ids) {
+                    EClass eClass = capture.ids.get(id);
+
+                    if(eClass != null) {
+                        if(!eReference.getEReferenceType().isSuperTypeOf(eClass)) {
+                            throw new UnsupportedContentException("Unresolved reference: " + id);
+                        }
+                    }
+                    else {
+                        EObject target = idTable.get(id);
+                        if(target == null || !eReference.getEReferenceType().isInstance(target)) {
+                            throw new UnsupportedContentException("Unresolved reference: " + id);
+                        }
+                        externalObjects.put(id, target);
+                    }
+                }
+            }
+
+            capture.diagramModel.setLazyContents(new LazyDiagramContents(resource, extendedMetaData, capture.finish(), externalObjects));
+        }
+    }
+
+    private String[] splitIDs(String value) {
+        StringTokenizer st = new StringTokenizer(value);
+        String[] ids = new String[st.countTokens()];
+        for(int i = 0; i < ids.length; i++) {
+            ids[i] = st.nextToken();
+        }
+        return ids;
+    }
+
+    private void checkWhiteSpace(XMLStreamReader reader) throws IOException {
+        if(!reader.isWhiteSpace()) {
+            throw new UnsupportedContentException("Unsupported text content");
+        }
+    }
+
+    private String emptyToNull(String s) {
+        return s == null || s.length() == 0 ? null : s;
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.model.util;
+
+import java.util.List;
+
+import org.eclipse.emf.common.notify.Notification;
+
+/**
+ * Ecore Model content notification listener that receives notifications in batches.<p>
+ *
+ * Notifications that occur between {@link com.archimatetool.model.IArchimateModel#beginBatch()} and the matching
+ * {@link com.archimatetool.model.IArchimateModel#endBatch()} are delivered together, in order, when the batch ends.
+ * Notifications that occur outside of a batch are delivered as a list of one.
+ *
+ * @author Phillip Beauvoir
+ */
+@FunctionalInterface
+public interface IModelContentBatchListener extends IModelContentListener {
+
+    /**
+     * @param notifications The notifications in the batch, in the order they occurred. This list is unmodifiable.
+     */
+    void notifyBatchChanged(List<Notification> notifications);
+
+    @Override
+    default void notifyChanged(Notification notification) {
+        notifyBatchChanged(List.of(notification));
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.model.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.ExtendedMetaData;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+
+import com.archimatetool.model.IArchimateConcept;
+import com.archimatetool.model.IDiagramModel;
+
+/**
+ * The unloaded contents of a Diagram Model.<p>
+ *
+ * If a model is loaded with the {@link ArchimateResource#OPTION_LAZY_DIAGRAM_CONTENTS} option the child objects of
+ * each Diagram Model are kept as compact XML and only created when the Diagram Model's children are first accessed.
+ * Objects outside of the diagram that are referenced by the contents are resolved when the model is loaded so that the
+ * concepts can report that they are referenced in a diagram without loading it.
+ *
+ * @author Phillip Beauvoir
+ */
+public final class LazyDiagramContents {
+
+    private static final ThreadLocal<Boolean> loadingSuppressed = ThreadLocal.withInitial(() -> false);
+
+    private final XMLResource resource;
+    private final ExtendedMetaData extendedMetaData;
+    private final byte[] content;
+    private final Map<String, EObject> externalObjects;
+
+    LazyDiagramContents(XMLResource resource, ExtendedMetaData extendedMetaData, byte[] content, Map<String, EObject> externalObjects) {
+        this.resource = resource;
+        this.extendedMetaData = extendedMetaData;
+        this.content = content;
+        this.externalObjects = externalObjects;
+    }
+
+    /**
+     * @return The ArchiMate concepts referenced by the contents
+     */
+    public List<IArchimateConcept> getReferencedConcepts() {
+        List<IArchimateConcept> concepts = new ArrayList<>();
+
+        for(EObject eObject : externalObjects.values()) {
+            if(eObject instanceof IArchimateConcept concept) {
+                concepts.add(concept);
+            }
+        }
+
+        return concepts;
+    }
+
+    /**
+     * Create the contents and add them to the Diagram Model's children
+     * @param diagramModel The Diagram Model
+     * @throws UncheckedIOException if the contents can't be loaded
+     */
+    public void load(IDiagramModel diagramModel) {
+        try {
+            new ArchimateStAXLoader(resource, extendedMetaData).loadDiagramContents(diagramModel, content, externalObjects);
+        }
+        catch(IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @return The size in bytes of the unloaded contents
+     */
+    public int size() {
+        return content.length;
+    }
+
+    /**
+     * Run something that traverses model contents without loading any lazy Diagram Model contents on this thread.
+     * Unloaded Diagram Models will appear to have no children.
+     * @param runnable The Runnable
+     */
+    public static void runWithoutLoading(Runnable runnable) {
+        if(loadingSuppressed.get()) {
+            runnable.run();
+            return;
+        }
+
+        loadingSuppressed.set(true);
+        try {
+            runnable.run();
+        }
+        finally {
+            loadingSuppressed.set(false);
+        }
+    }
+
+    /**
+     * @return true if lazy Diagram Model contents should not be loaded on this thread
+     */
+    public static boolean isLoadingSuppressed() {
+        return loadingSuppressed.get();
+    }
+}
@@ -0,0 +1,305 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.model.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IIdentifier;
+
+/**
+ * Compares two versions of a model and reports what has changed.<p>
+ *
+ * Objects are matched by their identifier. Objects in both versions are compared feature by feature in parallel.
+ * Objects that have an identifier are compared on their own, so the child objects of folders and diagrams are reported as
+ * separate changes and not as a change to the parent. Objects that do not have an identifier, such as Properties and Bounds,
+ * are compared as part of the object that contains them. References to objects that have an identifier are compared by identifier.<p>
+ *
+ * All the contents of both models are loaded when they are compared. The models should not be changed while they are compared.
+ *
+ * @author Phillip Beauvoir
+ */
+public final class ModelDiff {
+
+    /**
+     * Type of change
+     */
+    public enum ChangeType {
+        /**
+         * Object is only in the new model
+         */
+        ADDED,
+
+        /**
+         * Object is only in the old model
+         */
+        REMOVED,
+
+        /**
+         * Object has a different parent (folder, diagram model or diagram model object)
+         */
+        MOVED,
+
+        /**
+         * Object has a different class
+         */
+        RETYPED,
+
+        /**
+         * Object has a different name
+         */
+        RENAMED,
+
+        /**
+         * Object has different Properties
+         */
+        PROPERTIES_CHANGED,
+
+        /**
+         * Diagram model object has different bounds or diagram model connection has different bendpoints
+         */
+        LAYOUT_CHANGED,
+
+        /**
+         * Another feature of the object has changed
+         */
+        FEATURE_CHANGED
+    }
+
+    /**
+     * A change to an object
+     *
+     * @param type The type of change
+     * @param id The object's identifier
+     * @param oldObject The object in the old model, or null if it was added
+     * @param newObject The object in the new model, or null if it was removed
+     * @param feature The feature that changed, or null if the change is not to a feature
+     */
+    public record Change(ChangeType type, String id, IIdentifier oldObject, IIdentifier newObject, EStructuralFeature feature) {
+    }
+
+    /**
+     * The changes between two models. Changes to objects in the old model are in the order of the old model
+     * and are followed by the added objects in the order of the new model.
+     *
+     * @param changes The changes
+     */
+    public record ChangeSet(List<Change> changes) {
+
+        /**
+         * @return true if there are no changes
+         */
+        public boolean isEmpty() {
+            return changes.isEmpty();
+        }
+
+        /**
+         * @return The changes of the given type
+         */
+        public List<Change> getChanges(ChangeType type) {
+            return changes.stream().filter(change -> change.type() == type).toList();
+        }
+
+        /**
+         * @return The changes to the object with the given identifier
+         */
+        public List<Change> getChanges(String id) {
+            return changes.stream().filter(change -> change.id().equals(id)).toList();
+        }
+    }
+
+    private ModelDiff() {
+    }
+
+    /**
+     * Compare two versions of a model
+     * @param oldModel The old version of the model
+     * @param newModel The new version of the model
+     * @return The changes from the old model to the new model
+     */
+    public static ChangeSet compare(IArchimateModel oldModel, IArchimateModel newModel) {
+        List<IIdentifier> oldObjects = getIdentifiers(oldModel);
+        List<IIdentifier> newObjects = getIdentifiers(newModel);
+
+        Map<String, IIdentifier> oldIndex = createIndex(oldObjects);
+        Map<String, IIdentifier> newIndex = createIndex(newObjects);
+
+        // Removed and changed objects
+        List<Change> changes = new ArrayList<>(oldObjects.parallelStream()
+                .filter(oldObject -> oldIndex.get(oldObject.getId()) == oldObject) // ignore duplicate identifiers
+                .flatMap(oldObject -> {
+                    IIdentifier newObject = newIndex.get(oldObject.getId());
+                    return newObject == null ? Stream.of(new Change(ChangeType.REMOVED, oldObject.getId(), oldObject, null, null))
+                                             : compareObjects(oldObject, newObject).stream();
+                })
+                .toList());
+
+        // Added objects
+        changes.addAll(newObjects.parallelStream()
+                .filter(newObject -> newIndex.get(newObject.getId()) == newObject && !oldIndex.containsKey(newObject.getId()))
+                .map(newObject -> new Change(ChangeType.ADDED, newObject.getId(), null, newObject, null))
+                .toList());
+
+        return new ChangeSet(Collections.unmodifiableList(changes));
+    }
+
+    /**
+     * @return The model and all of its contents that have an identifier in document order.
+     *         This loads any unloaded diagram model contents before the objects are compared in parallel.
+     */
+    private static List<IIdentifier> getIdentifiers(IArchimateModel model) {
+        List<IIdentifier> objects = new ArrayList<>();
+        objects.add(model);
+
+        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
+            if(iter.next() instanceof IIdentifier identifier && identifier.getId() != null) {
+                objects.add(identifier);
+            }
+        }
+
+        return objects;
+    }
+
+    /**
+     * @return Map of identifier to object. If an identifier is duplicated the first object is used.
+     */
+    private static Map<String, IIdentifier> createIndex(List<IIdentifier> objects) {
+        Map<String, IIdentifier> index = HashMap.newHashMap(objects.size());
+
+        for(IIdentifier object : objects) {
+            index.putIfAbsent(object.getId(), object);
+        }
+
+        return index;
+    }
+
+    private static List<Change> compareObjects(IIdentifier oldObject, IIdentifier newObject) {
+        List<Change> changes = new ArrayList<>();
+        String id = oldObject.getId();
+
+        EClass oldClass = oldObject.eClass();
+        EClass newClass = newObject.eClass();
+        boolean sameClass = oldClass == newClass;
+
+        if(!sameClass) {
+            changes.add(new Change(ChangeType.RETYPED, id, oldObject, newObject, null));
+        }
+
+        if(!Objects.equals(getIdentifier(oldObject.eContainer()), getIdentifier(newObject.eContainer()))) {
+            changes.add(new Change(ChangeType.MOVED, id, oldObject, newObject, null));
+        }
+
+        for(int featureID = 0; featureID < oldClass.getFeatureCount(); featureID++) {
+            EStructuralFeature oldFeature = oldClass.getEStructuralFeature(featureID);
+            EStructuralFeature newFeature = sameClass ? oldFeature : newClass.getEStructuralFeature(oldFeature.getName());
+
+            if(newFeature == null || !isCompared(oldFeature)) {
+                continue;
+            }
+
+            if(!featureEquals(oldFeature, oldObject.eGet(oldFeature), newObject.eGet(newFeature))) {
+                changes.add(new Change(getChangeType(oldFeature), id, oldObject, newObject, oldFeature));
+            }
+        }
+
+        return changes;
+    }
+
+    /**
+     * @return false for features that are not compared: the identifier, transient features and
+     *         containment of objects that have identifiers as these are compared separately
+     */
+    private static boolean isCompared(EStructuralFeature feature) {
+        if(feature == IArchimatePackage.Literals.IDENTIFIER__ID || feature.isTransient() || feature.isDerived()) {
+            return false;
+        }
+
+        return !(feature instanceof EReference reference && reference.isContainment()
+                 && IIdentifier.class.isAssignableFrom(reference.getEReferenceType().getInstanceClass()));
+    }
+
+    private static ChangeType getChangeType(EStructuralFeature feature) {
+        if(feature == IArchimatePackage.Literals.NAMEABLE__NAME) {
+            return ChangeType.RENAMED;
+        }
+        if(feature == IArchimatePackage.Literals.PROPERTIES__PROPERTIES) {
+            return ChangeType.PROPERTIES_CHANGED;
+        }
+        if(feature == IArchimatePackage.Literals.DIAGRAM_MODEL_OBJECT__BOUNDS || feature == IArchimatePackage.Literals.DIAGRAM_MODEL_CONNECTION__BENDPOINTS) {
+            return ChangeType.LAYOUT_CHANGED;
+        }
+        return ChangeType.FEATURE_CHANGED;
+    }
+
+    private static boolean featureEquals(EStructuralFeature feature, Object oldValue, Object newValue) {
+        // Attribute values
+        if(!(feature instanceof EReference)) {
+            return Objects.equals(oldValue, newValue);
+        }
+
+        if(feature.isMany()) {
+            List<?> oldList = (List<?>)oldValue;
+            List<?> newList = (List<?>)newValue;
+
+            if(oldList.size() != newList.size()) {
+                return false;
+            }
+
+            for(int i = 0; i < oldList.size(); i++) {
+                if(!objectEquals((EObject)oldList.get(i), (EObject)newList.get(i))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        return objectEquals((EObject)oldValue, (EObject)newValue);
+    }
+
+    /**
+     * @return true if objects that have identifiers have the same identifier,
+     *         or objects that don't have identifiers are of the same class and have equal features
+     */
+    private static boolean objectEquals(EObject oldObject, EObject newObject) {
+        if(oldObject == null || newObject == null) {
+            return oldObject == newObject;
+        }
+
+        if(oldObject instanceof IIdentifier oldIdentifier && newObject instanceof IIdentifier newIdentifier) {
+            return Objects.equals(oldIdentifier.getId(), newIdentifier.getId());
+        }
+
+        if(oldObject.eClass() != newObject.eClass()) {
+            return false;
+        }
+
+        for(EStructuralFeature feature : oldObject.eClass().getEAllStructuralFeatures()) {
+            if(!feature.isTransient() && !featureEquals(feature, oldObject.eGet(feature), newObject.eGet(feature))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static String getIdentifier(EObject eObject) {
+        return eObject instanceof IIdentifier identifier ? identifier.getId() : null;
+    }
+}
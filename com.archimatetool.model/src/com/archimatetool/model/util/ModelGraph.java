@@ -0,0 +1,370 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.model.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+import org.eclipse.emf.ecore.EObject;
+
+import com.archimatetool.model.IArchimateConcept;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IFolder;
+
+/**
+ * Immutable snapshot of the concepts and relationships in a model as a graph.<p>
+ *
+ * Each concept (elements and relationships) is a node with a dense int index. Each relationship is also an edge
+ * from its source node to its target node, so relationships connected to relationships are edges between relationship nodes.
+ * A relationship node is attached to its source and target by an edge from its source node to it and an edge from it to its target node,
+ * so traversals and connected components that start from or pass through a relationship node reach its source and target.
+ * Adjacency is stored in compressed sparse row (CSR) arrays for both directions, and each edge stores the node index of its relationship.<p>
+ *
+ * The snapshot does not change when the model changes. Create a new one to see changes.
+ *
+ * @author Phillip Beauvoir
+ */
+public final class ModelGraph {
+
+    /**
+     * Direction to follow edges when traversing
+     */
+    public enum Direction {
+        OUTGOING,
+        INCOMING,
+        BOTH
+    }
+
+    /**
+     * Frontier size above which a traversal level is expanded in parallel
+     */
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    private final IArchimateConcept[] concepts;
+    private final Map<IArchimateConcept, Integer> indexes;
+
+    // CSR arrays. Edges of node n are from offsets[n] to offsets[n + 1] - 1
+    private final int[] outOffsets, outNodes, outRelationships;
+    private final int[] inOffsets, inNodes, inRelationships;
+
+    // Number of edges between a relationship's source and target, not including the edges that attach relationship nodes
+    private final int relationshipEdgeCount;
+
+    /**
+     * Create a snapshot of the model
+     * @param model The model
+     * @return The graph
+     */
+    public static ModelGraph create(IArchimateModel model) {
+        List<IArchimateConcept> concepts = new ArrayList<>();
+        for(IFolder folder : model.getFolders()) {
+            collectConcepts(folder, concepts);
+        }
+        return new ModelGraph(concepts);
+    }
+
+    private static void collectConcepts(IFolder folder, List<IArchimateConcept> concepts) {
+        for(EObject eObject : folder.getElements()) {
+            if(eObject instanceof IArchimateConcept concept) {
+                concepts.add(concept);
+            }
+        }
+
+        for(IFolder child : folder.getFolders()) {
+            collectConcepts(child, concepts);
+        }
+    }
+
+    private ModelGraph(List<IArchimateConcept> conceptList) {
+        concepts = conceptList.toArray(new IArchimateConcept[conceptList.size()]);
+        indexes = HashMap.newHashMap(concepts.length);
+        for(int i = 0; i < concepts.length; i++) {
+            indexes.put(concepts[i], i);
+        }
+
+        // Edges as (source, target, relationship) in node order. Each relationship has up to three edges:
+        // source -> target, source -> relationship and relationship -> target
+        int edgeCount = 0;
+        int[] sources = new int[concepts.length * 3];
+        int[] targets = new int[concepts.length * 3];
+        int[] relationships = new int[concepts.length * 3];
+        int count = 0;
+
+        for(int i = 0; i < concepts.length; i++) {
+            if(concepts[i] instanceof IArchimateRelationship relationship) {
+                int source = indexOf(relationship.getSource());
+                int target = indexOf(relationship.getTarget());
+                if(source != -1 && target != -1) {
+                    sources[edgeCount] = source;
+                    targets[edgeCount] = target;
+                    relationships[edgeCount] = i;
+                    edgeCount++;
+                    count++;
+                }
+                if(source != -1) {
+                    sources[edgeCount] = source;
+                    targets[edgeCount] = i;
+                    relationships[edgeCount] = i;
+                    edgeCount++;
+                }
+                if(target != -1) {
+                    sources[edgeCount] = i;
+                    targets[edgeCount] = target;
+                    relationships[edgeCount] = i;
+                    edgeCount++;
+                }
+            }
+        }
+
+        relationshipEdgeCount = count;
+
+        outOffsets = new int[concepts.length + 1];
+        outNodes = new int[edgeCount];
+        outRelationships = new int[edgeCount];
+        fillCSR(edgeCount, sources, targets, relationships, outOffsets, outNodes, outRelationships);
+
+        inOffsets = new int[concepts.length + 1];
+        inNodes = new int[edgeCount];
+        inRelationships = new int[edgeCount];
+        fillCSR(edgeCount, targets, sources, relationships, inOffsets, inNodes, inRelationships);
+    }
+
+    /**
+     * Counting sort of the edges by "from" node into CSR arrays
+     */
+    private static void fillCSR(int edgeCount, int[] from, int[] to, int[] relationships, int[] offsets, int[] nodes, int[] edgeRelationships) {
+        for(int e = 0; e < edgeCount; e++) {
+            offsets[from[e] + 1]++;
+        }
+
+        for(int n = 0; n < offsets.length - 1; n++) {
+            offsets[n + 1] += offsets[n];
+        }
+
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for(int e = 0; e < edgeCount; e++) {
+            int i = next[from[e]]++;
+            nodes[i] = to[e];
+            edgeRelationships[i] = relationships[e];
+        }
+    }
+
+    /**
+     * @return The number of nodes (concepts)
+     */
+    public int getNodeCount() {
+        return concepts.length;
+    }
+
+    /**
+     * @return The number of relationships with a source and target in the graph.
+     * This does not include the edges that attach relationship nodes to their source and target.
+     */
+    public int getEdgeCount() {
+        return relationshipEdgeCount;
+    }
+
+    /**
+     * @return The node index of the concept, or -1 if it is not in the graph
+     */
+    public int indexOf(IArchimateConcept concept) {
+        Integer index = concept != null ? indexes.get(concept) : null;
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @return The concept at node index
+     */
+    public IArchimateConcept getConcept(int index) {
+        return concepts[index];
+    }
+
+    public int getOutDegree(int index) {
+        return outOffsets[index + 1] - outOffsets[index];
+    }
+
+    public int getInDegree(int index) {
+        return inOffsets[index + 1] - inOffsets[index];
+    }
+
+    /**
+     * @return The node indexes connected to the node in the given direction, including the relationship nodes attached to it
+     * and, for a relationship node, its source or target. A node may be included more than once.
+     */
+    public int[] getNeighbours(int index, Direction direction) {
+        return switch(direction) {
+            case OUTGOING -> Arrays.copyOfRange(outNodes, outOffsets[index], outOffsets[index + 1]);
+            case INCOMING -> Arrays.copyOfRange(inNodes, inOffsets[index], inOffsets[index + 1]);
+            case BOTH -> IntStream.concat(Arrays.stream(outNodes, outOffsets[index], outOffsets[index + 1]),
+                                          Arrays.stream(inNodes, inOffsets[index], inOffsets[index + 1])).toArray();
+        };
+    }
+
+    /**
+     * @return The node indexes of the relationships of the node's edges in the given direction.
+     * The edges that attach relationship nodes to their source and target are not included.
+     */
+    public int[] getRelationships(int index, Direction direction) {
+        return switch(direction) {
+            case OUTGOING -> relationships(index, outNodes, outRelationships, outOffsets).toArray();
+            case INCOMING -> relationships(index, inNodes, inRelationships, inOffsets).toArray();
+            case BOTH -> IntStream.concat(relationships(index, outNodes, outRelationships, outOffsets),
+                                          relationships(index, inNodes, inRelationships, inOffsets)).toArray();
+        };
+    }
+
+    private static IntStream relationships(int index, int[] nodes, int[] edgeRelationships, int[] offsets) {
+        // An attaching edge has the relationship node at one of its ends
+        return IntStream.range(offsets[index], offsets[index + 1])
+                        .filter(e -> edgeRelationships[e] != index && edgeRelationships[e] != nodes[e])
+                        .map(e -> edgeRelationships[e]);
+    }
+
+    /**
+     * Breadth first traversal from the start nodes. Large levels are expanded in parallel.
+     * @param starts The start node indexes
+     * @param direction The direction to follow edges
+     * @param maxHops The maximum number of edges to follow from a start node
+     * @return The number of hops to each node from the nearest start node, or -1 if the node was not reached
+     */
+    public int[] getDistances(int[] starts, Direction direction, int maxHops) {
+        AtomicIntegerArray distances = new AtomicIntegerArray(concepts.length);
+        for(int i = 0; i < concepts.length; i++) {
+            distances.set(i, -1);
+        }
+
+        int[] frontier = IntStream.of(starts).filter(n -> distances.compareAndSet(n, -1, 0)).toArray();
+
+        for(int hop = 1; hop <= maxHops && frontier.length > 0; hop++) {
+            final int distance = hop;
+
+            IntStream nodes = IntStream.of(frontier);
+            if(frontier.length > PARALLEL_THRESHOLD) {
+                nodes = nodes.parallel();
+            }
+
+            frontier = nodes.flatMap(n -> neighbours(n, direction))
+                            .filter(n -> distances.compareAndSet(n, -1, distance))
+                            .toArray();
+        }
+
+        int[] result = new int[concepts.length];
+        for(int i = 0; i < result.length; i++) {
+            result[i] = distances.get(i);
+        }
+        return result;
+    }
+
+    private IntStream neighbours(int index, Direction direction) {
+        return switch(direction) {
+            case OUTGOING -> Arrays.stream(outNodes, outOffsets[index], outOffsets[index + 1]);
+            case INCOMING -> Arrays.stream(inNodes, inOffsets[index], inOffsets[index + 1]);
+            case BOTH -> IntStream.concat(Arrays.stream(outNodes, outOffsets[index], outOffsets[index + 1]),
+                                          Arrays.stream(inNodes, inOffsets[index], inOffsets[index + 1]));
+        };
+    }
+
+    /**
+     * Impact analysis. Find the concepts that are reached from a concept by following up to maxHops relationships.
+     * @param concept The start concept
+     * @param direction The direction to follow relationships
+     * @param maxHops The maximum number of relationships to follow
+     * @return The concepts reached, not including the start concept, ordered by number of hops
+     */
+    public List<IArchimateConcept> getImpact(IArchimateConcept concept, Direction direction, int maxHops) {
+        List<IArchimateConcept> result = new ArrayList<>();
+
+        int start = indexOf(concept);
+        if(start == -1) {
+            return result;
+        }
+
+        int[] distances = getDistances(new int[] { start }, direction, maxHops);
+
+        // Bucket by distance
+        int[] counts = new int[maxHops == Integer.MAX_VALUE ? concepts.length + 1 : Math.min(maxHops, concepts.length) + 1];
+        for(int d : distances) {
+            if(d > 0) {
+                counts[d]++;
+            }
+        }
+
+        List<List<IArchimateConcept>> levels = new ArrayList<>();
+        for(int i = 0; i < distances.length; i++) {
+            int d = distances[i];
+            if(d > 0) {
+                while(levels.size() <= d) {
+                    levels.add(new ArrayList<>(counts[levels.size()]));
+                }
+                levels.get(d).add(concepts[i]);
+            }
+        }
+
+        for(List<IArchimateConcept> level : levels) {
+            result.addAll(level);
+        }
+
+        return result;
+    }
+
+    /**
+     * @return The concepts reachable from a concept following relationships in the given direction, not including the start concept
+     */
+    public List<IArchimateConcept> getReachable(IArchimateConcept concept, Direction direction) {
+        return getImpact(concept, direction, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Weakly connected components. Relationship direction is ignored.
+     * @return The component number of each node. Components are numbered from 0 in order of their lowest node index.
+     */
+    public int[] getConnectedComponents() {
+        // Union-find with path halving
+        int[] parent = new int[concepts.length];
+        for(int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+
+        for(int n = 0; n < concepts.length; n++) {
+            for(int e = outOffsets[n]; e < outOffsets[n + 1]; e++) {
+                int a = find(parent, n);
+                int b = find(parent, outNodes[e]);
+                if(a != b) {
+                    // Lower index is the root so numbering is stable
+                    if(a < b) {
+                        parent[b] = a;
+                    }
+                    else {
+                        parent[a] = b;
+                    }
+                }
+            }
+        }
+
+        int[] components = new int[concepts.length];
+        int count = 0;
+        for(int n = 0; n < concepts.length; n++) {
+            int root = find(parent, n);
+            components[n] = root == n ? count++ : components[root];
+        }
+
+        return components;
+    }
+
+    private static int find(int[] parent, int n) {
+        while(parent[n] != n) {
+            parent[n] = parent[parent[n]];
+            n = parent[n];
+        }
+        return n;
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.model.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IIdentifier;
+
+/**
+ * A read-only copy of a model for analysis in background threads.<p>
+ *
+ * The snapshot is a copy of the model taken at one point in time, so it is consistent and it can be read by any number of
+ * threads while the model is being edited. The snapshot must not be changed. Objects in the snapshot have the same
+ * identifiers as the objects in the model, and results can be mapped back to the objects in the model with
+ * {@link #getLiveObject(EObject)}.<p>
+ *
+ * The snapshot listens to the model so that it knows if the model has changed since it was taken.
+ * Call {@link #dispose()} when finished to stop listening to the model.
+ *
+ * @author Phillip Beauvoir
+ */
+public final class ModelSnapshot {
+
+    private final IArchimateModel liveModel;
+    private final IArchimateModel model;
+
+    private final IModelContentListener listener = this::notifyChanged;
+
+    private volatile boolean stale;
+
+    // Map of IDs to objects in the live model, created when needed
+    private Map<String, EObject> liveObjects;
+
+    private ModelSnapshot(IArchimateModel liveModel) {
+        this.liveModel = liveModel;
+
+        model = EcoreUtil.copy(liveModel);
+        createLists(model);
+
+        liveModel.addModelContentListener(listener);
+    }
+
+    /**
+     * Take a snapshot of a model. This must be called on the thread that changes the model (the UI thread).
+     * @param model The model
+     * @return The snapshot
+     */
+    public static ModelSnapshot create(IArchimateModel model) {
+        return new ModelSnapshot(model);
+    }
+
+    /**
+     * Some lists are only created when first accessed. Create them now so that reading the snapshot doesn't change it.
+     */
+    private static void createLists(IArchimateModel model) {
+        createLists((EObject)model);
+
+        for(Iterator<EObject> iter = model.eAllContents(); iter.hasNext();) {
+            createLists(iter.next());
+        }
+    }
+
+    private static void createLists(EObject eObject) {
+        for(EStructuralFeature feature : eObject.eClass().getEAllStructuralFeatures()) {
+            if(feature.isMany()) {
+                eObject.eGet(feature);
+            }
+        }
+    }
+
+    /**
+     * @return The snapshot of the model. This must not be changed.
+     */
+    public IArchimateModel getModel() {
+        return model;
+    }
+
+    /**
+     * @return The model that the snapshot was taken from
+     */
+    public IArchimateModel getLiveModel() {
+        return liveModel;
+    }
+
+    /**
+     * @return true if the model has changed since the snapshot was taken
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Get the object in the model with the same identifier as an object in the snapshot.
+     * This must be called on the thread that changes the model (the UI thread).
+     * @param snapshotObject An object in the snapshot
+     * @return The object in the model, or null if it is not in the model
+     */
+    public synchronized EObject getLiveObject(EObject snapshotObject) {
+        if(!(snapshotObject instanceof IIdentifier identifier) || identifier.getId() == null) {
+            return null;
+        }
+
+        if(liveObjects == null) {
+            liveObjects = ArchimateModelUtils.getObjectIDMap(liveModel);
+        }
+
+        return liveObjects.get(identifier.getId());
+    }
+
+    /**
+     * Get the objects in the model with the same identifiers as objects in the snapshot.
+     * This must be called on the thread that changes the model (the UI thread).
+     * @param snapshotObjects Objects in the snapshot
+     * @return The objects in the model. Objects that are not in the model are not included.
+     */
+    public List<EObject> getLiveObjects(Collection<? extends EObject> snapshotObjects) {
+        List<EObject> objects = new ArrayList<>();
+
+        for(EObject snapshotObject : snapshotObjects) {
+            EObject liveObject = getLiveObject(snapshotObject);
+            if(liveObject != null) {
+                objects.add(liveObject);
+            }
+        }
+
+        return objects;
+    }
+
+    private synchronized void notifyChanged(Notification msg) {
+        stale = true;
+        liveObjects = null;
+    }
+
+    /**
+     * Stop listening to the model
+     */
+    public void dispose() {
+        liveModel.removeModelContentListener(listener);
+    }
+}
@@ -0,0 +1,299 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.model.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EClass;
+
+import com.archimatetool.model.IArchimateConcept;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.IDiagramModelComponent;
+
+/**
+ * Statistics about the concepts in a model for governance reports.<p>
+ *
+ * Statistics are calculated from a {@link ModelGraph} snapshot, in parallel where it helps, and are cached.
+ * Changes to the model are tracked so that only what has changed is calculated again the next time statistics are requested:
+ * changes to folders or relationship ends rebuild the graph, changes to diagrams only re-check isolated elements,
+ * and other changes such as names and properties don't need anything to be calculated.<p>
+ *
+ * Call {@link #dispose()} when finished to stop listening to the model.
+ *
+ * @author Phillip Beauvoir
+ */
+public class ModelStatistics {
+
+    /**
+     * Categories of concepts
+     */
+    public enum Layer {
+        STRATEGY,
+        BUSINESS,
+        APPLICATION,
+        TECHNOLOGY,
+        PHYSICAL,
+        MOTIVATION,
+        IMPLEMENTATION_MIGRATION,
+        OTHER,
+        CONNECTOR,
+        RELATIONSHIP
+    }
+
+    /**
+     * Calculated statistics
+     *
+     * @param elementCount Number of elements
+     * @param relationshipCount Number of relationships
+     * @param layerCounts Number of concepts in each Layer
+     * @param degreeDistribution Number of elements with each degree (number of relationships) indexed by degree
+     * @param hubs Elements with the highest degree in descending order of degree
+     * @param isolatedElements Elements that have no relationships and are not in any view
+     * @param componentSizes Number of elements in each weakly connected component in descending order of size
+     */
+    public record Statistics(int elementCount,
+                             int relationshipCount,
+                             Map<Layer, Integer> layerCounts,
+                             int[] degreeDistribution,
+                             List<IArchimateElement> hubs,
+                             List<IArchimateElement> isolatedElements,
+                             int[] componentSizes) {
+
+        /**
+         * @return The number of weakly connected components that contain elements
+         */
+        public int getComponentCount() {
+            return componentSizes.length;
+        }
+    }
+
+    /**
+     * Default number of hub elements to report
+     */
+    public static final int DEFAULT_HUB_COUNT = 10;
+
+    private static final Map<EClass, Layer> LAYERS = createLayerMap();
+
+    private final IArchimateModel model;
+    private final int hubCount;
+
+    private final IModelContentListener listener = this::notifyChanged;
+
+    // Set when the model changes in a way that affects the statistics
+    private volatile boolean graphChanged = true;
+    private volatile boolean viewsChanged = true;
+
+    // Cached results
+    private ModelGraph graph;
+    private int[] degrees;
+    private Statistics statistics;
+
+    /**
+     * @param model The model
+     */
+    public ModelStatistics(IArchimateModel model) {
+        this(model, DEFAULT_HUB_COUNT);
+    }
+
+    /**
+     * @param model The model
+     * @param hubCount The number of hub elements to report
+     */
+    public ModelStatistics(IArchimateModel model, int hubCount) {
+        this.model = model;
+        this.hubCount = hubCount;
+        model.addModelContentListener(listener);
+    }
+
+    /**
+     * @return The statistics, calculating anything that has changed since they were last requested
+     */
+    public synchronized Statistics getStatistics() {
+        boolean rebuildGraph = graphChanged || graph == null;
+        boolean recheckViews = rebuildGraph || viewsChanged;
+
+        if(statistics != null && !recheckViews) {
+            return statistics;
+        }
+
+        // Reset these first so that changes made while calculating are picked up next time
+        graphChanged = false;
+        viewsChanged = false;
+
+        List<IArchimateElement> hubs = statistics != null ? statistics.hubs() : null;
+        int[] degreeDistribution = statistics != null ? statistics.degreeDistribution() : null;
+        int[] componentSizes = statistics != null ? statistics.componentSizes() : null;
+        Map<Layer, Integer> layerCounts = statistics != null ? statistics.layerCounts() : null;
+
+        if(rebuildGraph) {
+            graph = ModelGraph.create(model);
+            degrees = IntStream.range(0, graph.getNodeCount()).parallel()
+                               .map(n -> graph.getOutDegree(n) + graph.getInDegree(n))
+                               .toArray();
+            degreeDistribution = calculateDegreeDistribution();
+            hubs = calculateHubs();
+            componentSizes = calculateComponentSizes();
+            layerCounts = calculateLayerCounts();
+        }
+
+        int elementCount = 0;
+        for(int n = 0; n < graph.getNodeCount(); n++) {
+            if(graph.getConcept(n) instanceof IArchimateElement) {
+                elementCount++;
+            }
+        }
+
+        statistics = new Statistics(elementCount,
+                                    graph.getNodeCount() - elementCount,
+                                    layerCounts,
+                                    degreeDistribution,
+                                    hubs,
+                                    calculateIsolatedElements(),
+                                    componentSizes);
+
+        return statistics;
+    }
+
+    private int[] calculateDegreeDistribution() {
+        int maxDegree = 0;
+        for(int n = 0; n < degrees.length; n++) {
+            if(graph.getConcept(n) instanceof IArchimateElement) {
+                maxDegree = Math.max(maxDegree, degrees[n]);
+            }
+        }
+
+        int[] distribution = new int[maxDegree + 1];
+        for(int n = 0; n < degrees.length; n++) {
+            if(graph.getConcept(n) instanceof IArchimateElement) {
+                distribution[degrees[n]]++;
+            }
+        }
+
+        return distribution;
+    }
+
+    private List<IArchimateElement> calculateHubs() {
+        return IntStream.range(0, graph.getNodeCount()).parallel()
+                        .filter(n -> graph.getConcept(n) instanceof IArchimateElement && degrees[n] > 0)
+                        .boxed()
+                        .sorted(Comparator.comparingInt((Integer n) -> degrees[n]).reversed().thenComparingInt(n -> n))
+                        .limit(hubCount)
+                        .map(n -> (IArchimateElement)graph.getConcept(n))
+                        .toList();
+    }
+
+    private List<IArchimateElement> calculateIsolatedElements() {
+        return IntStream.range(0, graph.getNodeCount()).parallel()
+                        .filter(n -> degrees[n] == 0 && graph.getConcept(n) instanceof IArchimateElement element && !element.isReferencedInDiagrams())
+                        .mapToObj(n -> (IArchimateElement)graph.getConcept(n))
+                        .toList();
+    }
+
+    private int[] calculateComponentSizes() {
+        int[] components = graph.getConnectedComponents();
+
+        Map<Integer, Integer> sizes = new HashMap<>();
+        for(int n = 0; n < components.length; n++) {
+            if(graph.getConcept(n) instanceof IArchimateElement) {
+                sizes.merge(components[n], 1, Integer::sum);
+            }
+        }
+
+        return sizes.values().stream()
+                             .sorted(Collections.reverseOrder())
+                             .mapToInt(Integer::intValue)
+                             .toArray();
+    }
+
+    private Map<Layer, Integer> calculateLayerCounts() {
+        Map<Layer, Integer> counts = new EnumMap<>(Layer.class);
+        for(Layer layer : Layer.values()) {
+            counts.put(layer, 0);
+        }
+
+        for(int n = 0; n < graph.getNodeCount(); n++) {
+            IArchimateConcept concept = graph.getConcept(n);
+            Layer layer = concept instanceof IArchimateRelationship ? Layer.RELATIONSHIP : LAYERS.get(concept.eClass());
+            if(layer != null) {
+                counts.merge(layer, 1, Integer::sum);
+            }
+        }
+
+        return Collections.unmodifiableMap(counts);
+    }
+
+    private void notifyChanged(Notification msg) {
+        Object feature = msg.getFeature();
+
+        if(feature == IArchimatePackage.Literals.FOLDER__ELEMENTS) {
+            // Adding or removing diagram models only affects isolated elements
+            if(isDiagramModels(msg.getNewValue()) && isDiagramModels(msg.getOldValue())) {
+                viewsChanged = true;
+            }
+            else {
+                graphChanged = true;
+            }
+        }
+        else if(feature == IArchimatePackage.Literals.FOLDER_CONTAINER__FOLDERS
+                || feature == IArchimatePackage.Literals.ARCHIMATE_RELATIONSHIP__SOURCE
+                || feature == IArchimatePackage.Literals.ARCHIMATE_RELATIONSHIP__TARGET) {
+            graphChanged = true;
+        }
+        else if(msg.getNotifier() instanceof IDiagramModelComponent && msg.getEventType() != Notification.SET) {
+            // Diagram components added or removed
+            viewsChanged = true;
+        }
+    }
+
+    /**
+     * @return true if value is null, a diagram model or a collection of diagram models
+     */
+    private boolean isDiagramModels(Object value) {
+        if(value instanceof Collection<?> collection) {
+            return collection.stream().allMatch(IDiagramModel.class::isInstance);
+        }
+        return value == null || value instanceof IDiagramModel;
+    }
+
+    /**
+     * Stop listening to the model
+     */
+    public void dispose() {
+        model.removeModelContentListener(listener);
+    }
+
+    private static Map<EClass, Layer> createLayerMap() {
+        Map<EClass, Layer> map = new HashMap<>();
+        put(map, ArchimateModelUtils.getStrategyClasses(), Layer.STRATEGY);
+        put(map, ArchimateModelUtils.getBusinessClasses(), Layer.BUSINESS);
+        put(map, ArchimateModelUtils.getApplicationClasses(), Layer.APPLICATION);
+        put(map, ArchimateModelUtils.getTechnologyClasses(), Layer.TECHNOLOGY);
+        put(map, ArchimateModelUtils.getPhysicalClasses(), Layer.PHYSICAL);
+        put(map, ArchimateModelUtils.getMotivationClasses(), Layer.MOTIVATION);
+        put(map, ArchimateModelUtils.getImplementationMigrationClasses(), Layer.IMPLEMENTATION_MIGRATION);
+        put(map, ArchimateModelUtils.getOtherClasses(), Layer.OTHER);
+        put(map, ArchimateModelUtils.getConnectorClasses(), Layer.CONNECTOR);
+        return map;
+    }
+
+    private static void put(Map<EClass, Layer> map, EClass[] eClasses, Layer layer) {
+        for(EClass eClass : eClasses) {
+            map.put(eClass, layer);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.model.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The time taken, and optionally the size, of each phase of an operation such as loading or saving a model.<p>
+ *
+ * Phases are recorded in the order that they finish. Phases can be recorded from more than one thread.
+ * Named counts, such as statistics at the end of the operation, can be recorded as well as phases.
+ *
+ * @author Phillip Beauvoir
+ */
+public final class PhaseTimings {
+
+    /**
+     * A recorded phase
+     *
+     * @param name The name of the phase
+     * @param nanos The time taken in nanoseconds
+     * @param size The size in bytes, or -1 if the phase has no size
+     */
+    public record Phase(String name, long nanos, long size) {
+
+        /**
+         * @return The time taken in milliseconds
+         */
+        public double getMillis() {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    private final String name;
+    private final List<Phase> phases = new ArrayList<>();
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+
+    /**
+     * @param name The name of the operation, for example "Load model.archimate"
+     */
+    public PhaseTimings(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return The current time to pass as the start time of a phase
+     */
+    public static long now() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Record a phase that started at startTime and has just finished
+     * @param phase The name of the phase
+     * @param startTime The start time from {@link #now()}
+     */
+    public void add(String phase, long startTime) {
+        add(phase, startTime, -1);
+    }
+
+    /**
+     * Record a phase that started at startTime and has just finished
+     * @param phase The name of the phase
+     * @param startTime The start time from {@link #now()}
+     * @param size The size in bytes, or -1 if the phase has no size
+     */
+    public synchronized void add(String phase, long startTime, long size) {
+        phases.add(new Phase(phase, now() - startTime, size));
+    }
+
+    /**
+     * Record a named count. If the count has already been recorded it is replaced.
+     * @param name The name of the count
+     * @param value The value
+     */
+    public synchronized void setCount(String name, long value) {
+        counts.put(name, value);
+    }
+
+    /**
+     * @return The name of the operation
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return A copy of the recorded phases
+     */
+    public synchronized List<Phase> getPhases() {
+        return List.copyOf(phases);
+    }
+
+    /**
+     * @return A copy of the recorded counts in the order that they were first recorded
+     */
+    public synchronized Map<String, Long> getCounts() {
+        return new LinkedHashMap<>(counts);
+    }
+
+    /**
+     * @return true if no phases have been recorded
+     */
+    public synchronized boolean isEmpty() {
+        return phases.isEmpty();
+    }
+
+    /**
+     * @return The total time of all phases in nanoseconds
+     */
+    public synchronized long getTotalNanos() {
+        long total = 0;
+        for(Phase phase : phases) {
+            total += phase.nanos();
+        }
+        return total;
+    }
+
+    /**
+     * @return The phases and counts on one line as "name: total=12.3ms phase=1.2ms phase=4.5ms/1024B ... count=42 ..."
+     */
+    @SuppressWarnings("nls")
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder(name);
+        sb.append(": total=").append(formatMillis(getTotalNanos())).append("ms");
+
+        for(Phase phase : phases) {
+            sb.append(' ').append(phase.name()).append('=').append(formatMillis(phase.nanos())).append("ms");
+            if(phase.size() >= 0) {
+                sb.append('/').append(phase.size()).append('B');
+            }
+        }
+
+        counts.forEach((countName, value) -> sb.append(' ').append(countName).append('=').append(value));
+
+        return sb.toString();
+    }
+
+    @SuppressWarnings("nls")
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
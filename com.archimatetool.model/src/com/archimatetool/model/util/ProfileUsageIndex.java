@@ -0,0 +1,197 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.model.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+
+import com.archimatetool.model.IArchimateConcept;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IProfile;
+import com.archimatetool.model.IProfiles;
+
+/**
+ * Index of the concepts in a model that use each Profile (Specialization).<p>
+ *
+ * The index is created once per model from the concepts in the model's folders and is then kept up to date
+ * from model notifications, so that finding the usage of a Profile doesn't need to search the whole model.
+ * Use {@link #getIndex(IArchimateModel)} to get the index for a model.
+ *
+ * @author Phillip Beauvoir
+ */
+public final class ProfileUsageIndex {
+
+    private final Map<IProfile, Set<IProfiles>> usages = new HashMap<>();
+
+    private ProfileUsageIndex(IArchimateModel model) {
+        for(IFolder folder : model.getFolders()) {
+            addContents(folder);
+        }
+    }
+
+    /**
+     * @param model The model
+     * @return The index for the model, creating it the first time it is requested
+     */
+    public static ProfileUsageIndex getIndex(IArchimateModel model) {
+        synchronized(model) {
+            ProfileUsageIndex index = (ProfileUsageIndex)model.getAdapter(ProfileUsageIndex.class);
+
+            if(index == null) {
+                index = new ProfileUsageIndex(model);
+
+                // If the listener can't be added (the model is disposed) the index is used once and not stored
+                if(model.addModelContentListener(index::notifyChanged)) {
+                    model.setAdapter(ProfileUsageIndex.class, index);
+                }
+            }
+
+            return index;
+        }
+    }
+
+    /**
+     * @return A list of the concepts that use the profile. If there are none an empty list is returned.
+     */
+    public synchronized List<IProfiles> getUsage(IProfile profile) {
+        Set<IProfiles> set = usages.get(profile);
+        return set != null ? new ArrayList<>(set) : new ArrayList<>();
+    }
+
+    /**
+     * @return The number of concepts that use the profile
+     */
+    public synchronized int getUsageCount(IProfile profile) {
+        Set<IProfiles> set = usages.get(profile);
+        return set != null ? set.size() : 0;
+    }
+
+    /**
+     * @return true if the profile is used by at least one concept
+     */
+    public synchronized boolean isUsed(IProfile profile) {
+        return usages.containsKey(profile);
+    }
+
+    /**
+     * @return A map of each used profile to a list of the concepts that use it. Profiles that are not used are not included.
+     */
+    public synchronized Map<IProfile, List<IProfiles>> getUsages() {
+        Map<IProfile, List<IProfiles>> map = HashMap.newHashMap(usages.size());
+
+        for(Map.Entry<IProfile, Set<IProfiles>> entry : usages.entrySet()) {
+            map.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+
+        return map;
+    }
+
+    private synchronized void notifyChanged(Notification msg) {
+        Object feature = msg.getFeature();
+
+        if(feature == IArchimatePackage.Literals.ARCHIMATE_CONCEPT__PROFILES) {
+            IProfiles owner = (IProfiles)msg.getNotifier();
+
+            // Only concepts in the model's folders are indexed
+            if(!isInModel(owner)) {
+                return;
+            }
+
+            switch(msg.getEventType()) {
+                case Notification.ADD, Notification.ADD_MANY, Notification.SET, Notification.REMOVE, Notification.REMOVE_MANY -> {
+                    forEach(msg.getOldValue(), profile -> removeUsage((IProfile)profile, owner));
+                    forEach(msg.getNewValue(), profile -> addUsage((IProfile)profile, owner));
+                }
+                default -> {}
+            }
+        }
+        else if(feature == IArchimatePackage.Literals.FOLDER__ELEMENTS || feature == IArchimatePackage.Literals.FOLDER_CONTAINER__FOLDERS) {
+            switch(msg.getEventType()) {
+                case Notification.ADD, Notification.ADD_MANY, Notification.SET, Notification.REMOVE, Notification.REMOVE_MANY -> {
+                    forEach(msg.getOldValue(), this::removeContents);
+                    forEach(msg.getNewValue(), this::addContents);
+                }
+                default -> {}
+            }
+        }
+    }
+
+    /**
+     * @return true if the concept is contained in a folder
+     */
+    private boolean isInModel(IProfiles owner) {
+        return owner instanceof EObject eObject && eObject.eContainer() instanceof IFolder;
+    }
+
+    private void addContents(Object object) {
+        if(object instanceof IArchimateConcept concept) {
+            for(IProfile profile : concept.getProfiles()) {
+                addUsage(profile, concept);
+            }
+        }
+        else if(object instanceof IFolder folder) {
+            for(EObject eObject : folder.getElements()) {
+                addContents(eObject);
+            }
+            for(IFolder child : folder.getFolders()) {
+                addContents(child);
+            }
+        }
+    }
+
+    private void removeContents(Object object) {
+        if(object instanceof IArchimateConcept concept) {
+            for(IProfile profile : concept.getProfiles()) {
+                removeUsage(profile, concept);
+            }
+        }
+        else if(object instanceof IFolder folder) {
+            for(EObject eObject : folder.getElements()) {
+                removeContents(eObject);
+            }
+            for(IFolder child : folder.getFolders()) {
+                removeContents(child);
+            }
+        }
+    }
+
+    private void addUsage(IProfile profile, IProfiles owner) {
+        if(profile != null) {
+            usages.computeIfAbsent(profile, p -> new LinkedHashSet<>()).add(owner);
+        }
+    }
+
+    private void removeUsage(IProfile profile, IProfiles owner) {
+        Set<IProfiles> set = usages.get(profile);
+        if(set != null && set.remove(owner) && set.isEmpty()) {
+            usages.remove(profile);
+        }
+    }
+
+    /**
+     * Call action for value if it is an EObject or for each member if it is a Collection.
+     * Other values such as the positions in a REMOVE_MANY notification are ignored.
+     */
+    private static void forEach(Object value, Consumer<Object> action) {
+        if(value instanceof Collection<?> collection) {
+            collection.forEach(action);
+        }
+        else if(value instanceof EObject) {
+            action.accept(value);
+        }
+    }
+}
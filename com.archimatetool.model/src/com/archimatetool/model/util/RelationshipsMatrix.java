@@ -17,6 +17,7 @@ import java.util.Set;
 
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.input.SAXBuilder;
@@ -92,6 +93,26 @@ public class RelationshipsMatrix {
      * Mapping of relationships to key letters
      */
     private Map<EClass, Character> relationsValueMap = new LinkedHashMap<EClass, Character>();
+    
+    /**
+     * Bit for each relationship type indexed by classifier ID, or 0 if it is not a relationship type in the matrix
+     */
+    private int[] relationshipBits;
+    
+    /**
+     * Bit mask of valid relationships indexed by source classifier ID and target classifier ID
+     */
+    private int[][] validRelationships;
+    
+    /**
+     * Bit mask of relationships that can start from a source indexed by source classifier ID
+     */
+    private int[] validStartRelationships;
+    
+    /**
+     * Valid relationship types in ArchimateModelUtils.getRelationsClasses() order indexed by source classifier ID and target classifier ID
+     */
+    private EClass[][][] validRelationshipTypes;
 
     private RelationshipsMatrix() {
         // Load Key letters file
@@ -99,6 +120,9 @@ public class RelationshipsMatrix {
         
         // Load Relationships file
         loadRelationships();
+        
+        // Compile to arrays for fast look up
+        compileMatrix();
     }
     
     public Map<EClass, List<TargetMatrix>> getRelationshipsMatrix() {
@@ -110,53 +134,108 @@ public class RelationshipsMatrix {
     }
 
     boolean isValidRelationshipStart(EClass sourceType, EClass relationshipType) {
-        // Use "Relationship" as a generic super type
-        if(IArchimatePackage.eINSTANCE.getArchimateRelationship().isSuperTypeOf(sourceType)) {
-            sourceType = IArchimatePackage.eINSTANCE.getArchimateRelationship();
-        }
-        
-        List<TargetMatrix> listMatrix = matrixMap.get(sourceType);
-        if(listMatrix != null) {
-            for(TargetMatrix targetMatrix : listMatrix) {
-                if(targetMatrix.getRelationships().contains(relationshipType)) {
-                    return true;
-                }
-            }
-        }
+        int source = getIndex(sourceType);
+        int relationship = getIndex(relationshipType);
         
-        return false;
+        return source != -1 && relationship != -1 && (validStartRelationships[source] & relationshipBits[relationship]) != 0;
     }
     
     boolean isValidRelationship(EClass sourceType, EClass targetType, EClass relationshipType) {
-        if(relationshipType == null) {
-            return false;
-        }
+        int source = getIndex(sourceType);
+        int target = getIndex(targetType);
+        int relationship = getIndex(relationshipType);
         
-        // relationshipType has to be a Relationship class
-        if(!IArchimatePackage.eINSTANCE.getArchimateRelationship().isSuperTypeOf(relationshipType)) {
-            return false;
-        }
+        return source != -1 && target != -1 && relationship != -1 && (validRelationships[source][target] & relationshipBits[relationship]) != 0;
+    }
+    
+    /**
+     * @return All valid relationship types between sourceType and targetType. This is a shared array so don't change it!
+     */
+    EClass[] getValidRelationships(EClass sourceType, EClass targetType) {
+        int source = getIndex(sourceType);
+        int target = getIndex(targetType);
         
-        // Use "Relationship" as a generic super type
-        if(IArchimatePackage.eINSTANCE.getArchimateRelationship().isSuperTypeOf(sourceType)) {
-            sourceType = IArchimatePackage.eINSTANCE.getArchimateRelationship();
-        }
+        return source != -1 && target != -1 ? validRelationshipTypes[source][target] : new EClass[0];
+    }
+    
+    /**
+     * @return The index of eClass in the compiled arrays, or -1 if it is not an ArchiMate class
+     */
+    private int getIndex(EClass eClass) {
+        return eClass != null && eClass.getEPackage() == IArchimatePackage.eINSTANCE ? eClass.getClassifierID() : -1;
+    }
+    
+    /**
+     * Compile the relationships matrix into arrays indexed by classifier ID so that a query is an array read
+     */
+    private void compileMatrix() {
+        int size = IArchimatePackage.eINSTANCE.getEClassifiers().size();
+        EClass relationshipClass = IArchimatePackage.eINSTANCE.getArchimateRelationship();
         
-        // Use "Relationship" as a generic super type
-        if(IArchimatePackage.eINSTANCE.getArchimateRelationship().isSuperTypeOf(targetType)) {
-            targetType = IArchimatePackage.eINSTANCE.getArchimateRelationship();
+        // Relationship bits
+        relationshipBits = new int[size];
+        int bit = 0;
+        for(EClass relationship : relationsValueMap.keySet()) {
+            if(bit == Integer.SIZE) {
+                System.err.println(getClass() + ": Too many relationship types"); //$NON-NLS-1$
+                break;
+            }
+            relationshipBits[relationship.getClassifierID()] = 1 << bit++;
         }
         
-        List<TargetMatrix> listMatrix = matrixMap.get(sourceType);
-        if(listMatrix != null) {
-            for(TargetMatrix targetMatrix : listMatrix) {
-                if(targetMatrix.getTargetClass() == targetType && targetMatrix.getRelationships().contains(relationshipType)) {
-                    return true;
+        validRelationships = new int[size][size];
+        validStartRelationships = new int[size];
+        validRelationshipTypes = new EClass[size][size][];
+        
+        // Share arrays of relationship types that have the same mask
+        Map<Integer, EClass[]> typesCache = new HashMap<>();
+        EClass[] relationsClasses = ArchimateModelUtils.getRelationsClasses();
+        
+        for(EClassifier sourceClassifier : IArchimatePackage.eINSTANCE.getEClassifiers()) {
+            int source = sourceClassifier.getClassifierID();
+            
+            // Use "Relationship" as a generic super type
+            List<TargetMatrix> listMatrix = sourceClassifier instanceof EClass sourceType
+                    ? matrixMap.get(relationshipClass.isSuperTypeOf(sourceType) ? relationshipClass : sourceType) : null;
+            
+            for(EClassifier targetClassifier : IArchimatePackage.eINSTANCE.getEClassifiers()) {
+                int target = targetClassifier.getClassifierID();
+                int mask = 0;
+                
+                if(listMatrix != null && targetClassifier instanceof EClass targetType) {
+                    EClass targetKey = relationshipClass.isSuperTypeOf(targetType) ? relationshipClass : targetType;
+                    
+                    for(TargetMatrix targetMatrix : listMatrix) {
+                        if(targetMatrix.getTargetClass() == targetKey) {
+                            for(EClass relationship : targetMatrix.getRelationships()) {
+                                mask |= relationshipBits[relationship.getClassifierID()];
+                            }
+                        }
+                    }
+                }
+                
+                validRelationships[source][target] = mask;
+                
+                validRelationshipTypes[source][target] = typesCache.computeIfAbsent(mask, m -> {
+                    List<EClass> list = new ArrayList<>();
+                    for(EClass relationship : relationsClasses) {
+                        if((m & relationshipBits[relationship.getClassifierID()]) != 0) {
+                            list.add(relationship);
+                        }
+                    }
+                    return list.toArray(new EClass[list.size()]);
+                });
+            }
+            
+            // Any relationship from the source is a valid start
+            if(listMatrix != null) {
+                for(TargetMatrix targetMatrix : listMatrix) {
+                    for(EClass relationship : targetMatrix.getRelationships()) {
+                        validStartRelationships[source] |= relationshipBits[relationship.getClassifierID()];
+                    }
                 }
             }
         }
-        
-        return false;
     }
     
     private void loadKeyLetters() {
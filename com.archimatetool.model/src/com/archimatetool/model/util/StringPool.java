@@ -0,0 +1,147 @@
+/**
+ * This program and the accompanying materials
+ * are made available under the terms of the License
+ * which accompanies this distribution in the file LICENSE.txt
+ */
+package com.archimatetool.model.util;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of canonical Strings used to de-duplicate repeated strings such as Property keys and values,
+ * Feature names and concept names when a model is loaded.<p>
+ *
+ * Strings are held weakly so that a pooled String is garbage collected when no model references it.
+ * The pool is cleared if it reaches its maximum size, and Strings longer than the maximum length are not pooled
+ * as these are unlikely to be repeated (documentation, for example).<p>
+ *
+ * The pool is split into stripes selected by hash code, each with its own lock, so that models loaded at the same time
+ * on different threads don't wait on one lock.<p>
+ *
+ * Unlike {@link String#intern()} the pool does not grow the JVM's string table.
+ *
+ * @author Phillip Beauvoir
+ */
+public final class StringPool {
+
+    /**
+     * The shared pool instance
+     */
+    public static final StringPool INSTANCE = new StringPool(100_000, 256);
+
+    /**
+     * Approximate size in bytes of a String object and its backing array header on a 64-bit JVM with compressed oops
+     */
+    private static final int STRING_OVERHEAD = 40;
+
+    /**
+     * Number of stripes. This must be a power of two.
+     */
+    private static final int STRIPES = 32;
+
+    @SuppressWarnings("unchecked")
+    private final Map<String, WeakReference<String>>[] stripes = new Map[STRIPES];
+
+    private final int maxStripeSize;
+    private final int maxLength;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * @param maxSize The maximum number of Strings in the pool. A stripe is cleared when it holds its share of this.
+     * @param maxLength The maximum length of a String that will be pooled
+     */
+    public StringPool(int maxSize, int maxLength) {
+        maxStripeSize = Math.max(1, maxSize / STRIPES);
+        this.maxLength = maxLength;
+
+        for(int i = 0; i < STRIPES; i++) {
+            stripes[i] = new WeakHashMap<>();
+        }
+    }
+
+    /**
+     * @param s The String to de-duplicate. May be null.
+     * @return The canonical instance of s, or s itself if it is not pooled
+     */
+    public String intern(String s) {
+        if(s == null || s.isEmpty() || s.length() > maxLength) {
+            return s;
+        }
+
+        Map<String, WeakReference<String>> stripe = getStripe(s);
+
+        synchronized(stripe) {
+            WeakReference<String> ref = stripe.get(s);
+            String pooled = ref != null ? ref.get() : null;
+
+            if(pooled != null) {
+                if(pooled != s) {
+                    hitCount.increment();
+                    savedBytes.add(STRING_OVERHEAD + s.length());
+                }
+                return pooled;
+            }
+
+            if(stripe.size() >= maxStripeSize) {
+                stripe.clear();
+            }
+
+            stripe.put(s, new WeakReference<>(s));
+            return s;
+        }
+    }
+
+    private Map<String, WeakReference<String>> getStripe(String s) {
+        int h = s.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * @return The number of Strings currently in the pool
+     */
+    public int size() {
+        int size = 0;
+
+        for(Map<String, WeakReference<String>> stripe : stripes) {
+            synchronized(stripe) {
+                size += stripe.size();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * @return The number of duplicate Strings that were replaced by a pooled String
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return An estimate of the heap in bytes saved by replacing duplicate Strings with a pooled String.
+     * This assumes compact (Latin-1) Strings so is a lower bound for other text.
+     */
+    public long getSavedBytes() {
+        return savedBytes.sum();
+    }
+
+    /**
+     * Clear the pool and reset the statistics
+     */
+    public void clear() {
+        for(Map<String, WeakReference<String>> stripe : stripes) {
+            synchronized(stripe) {
+                stripe.clear();
+            }
+        }
+
+        hitCount.reset();
+        savedBytes.reset();
+    }
+}
@@ -5,8 +5,8 @@
  */
 package com.archimatetool.model.util;
 
+import java.security.SecureRandom;
 import java.util.Iterator;
-import java.util.UUID;
 
 import org.eclipse.emf.ecore.EObject;
 
@@ -14,7 +14,11 @@ import com.archimatetool.model.IIdentifier;
 
 
 /**
- * UUID Factory
+ * UUID Factory<p>
+ * 
+ * IDs are the prefix followed by a random (version 4) UUID as 32 hex characters, the same as
+ * <code>UUID.randomUUID().toString().replace("-", "")</code>. Each thread has its own SecureRandom and takes random bytes
+ * from it in blocks, so creating many IDs doesn't contend on a shared SecureRandom or create intermediate Strings.
  * 
  * @author Phillip Beauvoir
  */
@@ -26,6 +30,8 @@ public class UUIDFactory {
      */
     public static final String PREFIX = "id-";
     
+    private static final ThreadLocal<IDGenerator> generator = ThreadLocal.withInitial(IDGenerator::new);
+    
     /**
      * Generate a new UUID for an object
      * @param object
@@ -33,7 +39,7 @@ public class UUIDFactory {
      */
     public static String createID(IIdentifier object) {
         // Note - in future we could create an id based on the object type
-        return PREFIX + UUID.randomUUID().toString().replace("-", "");
+        return generator.get().next();
     }
 
     /**
@@ -49,15 +55,57 @@ public class UUIDFactory {
      * @param object The object for which to generate new IDs and its children, if any
      */
     public static void generateNewIDs(EObject object) {
+        IDGenerator idGenerator = generator.get();
+        
         if(object instanceof IIdentifier) {
-            generateNewID((IIdentifier)object);
+            ((IIdentifier)object).setId(idGenerator.next());
         }
         
         for(Iterator<EObject> iter = object.eAllContents(); iter.hasNext();) {
             object = iter.next();
             if(object instanceof IIdentifier) {
-                generateNewID((IIdentifier)object);
+                ((IIdentifier)object).setId(idGenerator.next());
+            }
+        }
+    }
+    
+    /**
+     * Per-thread ID generator
+     */
+    private static class IDGenerator {
+        private static final int UUID_BYTES = 16;
+        private static final int BUFFER_SIZE = UUID_BYTES * 256;
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+        
+        private final SecureRandom random = new SecureRandom();
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position = BUFFER_SIZE;
+        private final char[] chars = new char[PREFIX.length() + UUID_BYTES * 2];
+        
+        IDGenerator() {
+            PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        }
+        
+        String next() {
+            if(position == BUFFER_SIZE) {
+                random.nextBytes(buffer);
+                position = 0;
+            }
+            
+            int start = position;
+            position += UUID_BYTES;
+            
+            // Set the version (4) and IETF variant bits as UUID.randomUUID() does
+            buffer[start + 6] = (byte)((buffer[start + 6] & 0x0f) | 0x40);
+            buffer[start + 8] = (byte)((buffer[start + 8] & 0x3f) | 0x80);
+            
+            int c = PREFIX.length();
+            for(int i = start; i < position; i++) {
+                chars[c++] = HEX[(buffer[i] >> 4) & 0x0f];
+                chars[c++] = HEX[buffer[i] & 0x0f];
             }
+            
+            return new String(chars);
         }
     }
 }
\ No newline at end of file